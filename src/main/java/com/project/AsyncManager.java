@@ -0,0 +1,145 @@
+package com.project;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Classe AsyncManager: Versió asíncrona de les operacions del Manager.
+ * Cada mètode retorna un CompletableFuture en lloc de bloquejar qui crida.
+ * 
+ * FILS VIRTUALS (Java 21): Cada operació s'executa en un fil virtual.
+ * Quan un fil virtual es bloqueja esperant SQLite, allibera el fil de
+ * plataforma que l'executava, així es poden llançar moltes lectures en
+ * paral·lel sense ocupar fils del sistema operatiu.
+ * 
+ * SEMAPHORE: Limita quantes transaccions s'executen alhora. Com que cada
+ * transacció necessita una connexió, el límit és la mida del pool; la
+ * resta d'operacions esperen (en fils virtuals, sense cost) el seu torn.
+ */
+public class AsyncManager {
+
+    /**
+     * L'executor i el seu límit de concurrència van junts en un sol objecte
+     * VOLATILE: submit() els llegeix sense bloqueig i sempre veu una parella
+     * coherent (o null si l'AsyncManager no està iniciat o s'ha aturat).
+     */
+    private record Runner(ExecutorService executor, Semaphore permits) {}
+
+    private static volatile Runner runner;
+
+    /**
+     * Inicia l'executor amb tantes operacions concurrents com connexions
+     * té el pool. S'ha de cridar després de Manager.createSessionFactory().
+     */
+    public static void start() {
+        start(Manager.getConnectionPoolSize());
+    }
+
+    public static synchronized void start(int maxConcurrency) {
+        if (maxConcurrency < 1) throw new IllegalArgumentException("maxConcurrency ha de ser >= 1");
+        if (runner != null) return;
+        runner = new Runner(Executors.newVirtualThreadPerTaskExecutor(), new Semaphore(maxConcurrency));
+    }
+
+    /**
+     * Espera que acabin les operacions pendents i atura l'executor.
+     */
+    public static synchronized void shutdown() {
+        Runner current = runner;
+        if (current == null) return;
+        runner = null;
+        current.executor().close();
+    }
+
+    /**
+     * Executa una crida del Manager en un fil virtual, dins el límit de
+     * concurrència. Les excepcions completen el futur de manera excepcional.
+     */
+    private static <T> CompletableFuture<T> submit(Supplier<T> call) {
+        Runner current = runner;
+        if (current == null) {
+            throw new IllegalStateException("AsyncManager no iniciat: crida AsyncManager.start()");
+        }
+        Semaphore limit = current.permits();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    limit.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CompletionException(e);
+                }
+                try {
+                    return call.get();
+                } finally {
+                    limit.release();
+                }
+            }, current.executor());
+        } catch (RejectedExecutionException e) {
+            // shutdown() ha tancat l'executor just després de llegir-lo
+            throw new IllegalStateException("AsyncManager aturat", e);
+        }
+    }
+
+    // ============================================================
+    // OPERACIONS CRUD ASÍNCRONES
+    // ============================================================
+
+    public static CompletableFuture<Cart> addCart(String type) {
+        return submit(() -> Manager.addCart(type));
+    }
+
+    public static CompletableFuture<Item> addItem(String name) {
+        return submit(() -> Manager.addItem(name));
+    }
+
+    public static CompletableFuture<Void> updateItem(long itemId, String name) {
+        return submit(() -> {
+            Manager.updateItem(itemId, name);
+            return null;
+        });
+    }
+
+    public static CompletableFuture<Void> updateCart(long cartId, String type, Set<Item> newItems) {
+        return submit(() -> {
+            Manager.updateCart(cartId, type, newItems);
+            return null;
+        });
+    }
+
+    public static <T> CompletableFuture<T> getById(Class<T> clazz, long id) {
+        return submit(() -> Manager.getById(clazz, id));
+    }
+
+    public static <T> CompletableFuture<List<T>> getByIds(Class<T> clazz, Collection<Long> ids) {
+        return submit(() -> Manager.getByIds(clazz, ids));
+    }
+
+    public static CompletableFuture<Cart> getCartWithItems(long cartId) {
+        return submit(() -> Manager.getCartWithItems(cartId));
+    }
+
+    public static <T> CompletableFuture<List<T>> listCollection(Class<T> clazz) {
+        return submit(() -> Manager.listCollection(clazz));
+    }
+
+    public static <T> CompletableFuture<List<T>> listCollection(Class<T> clazz, String whereClause) {
+        return submit(() -> Manager.listCollection(clazz, whereClause));
+    }
+
+    public static <T> CompletableFuture<Void> delete(Class<T> clazz, Serializable id) {
+        return submit(() -> {
+            Manager.delete(clazz, id);
+            return null;
+        });
+    }
+}
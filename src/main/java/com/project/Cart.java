@@ -1,10 +1,13 @@
 package com.project;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
+
+import org.hibernate.Hibernate;
 
 /**
  * Classe que representa un carret de compra.
@@ -77,23 +80,47 @@ public class Cart implements Serializable {
     }
   
     /**
-     * STREAMS I COLLECTORS: Utilitza l'API de Streams de Java 8+ per transformar
-     * la col·lecció d'items en una representació en text.
-     * - stream(): converteix la col·lecció en un flux de dades
-     * - map(): transforma cada Item al seu nom (String)
-     * - Collectors.joining(): uneix tots els noms amb ", " i afegeix "[" i "]"
+     * Mateix text que appendTo(), construït en un StringBuilder.
      */
     @Override
     public String toString() {
-        String llistaItems = "[]";
-        
-        if (items != null && !items.isEmpty()) {
-            llistaItems = items.stream()
-                .map(Item::getName)
-                .collect(Collectors.joining(", ", "[", "]"));
+        StringBuilder sb = new StringBuilder(64);
+        try {
+            appendTo(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder no en llança mai
         }
+        return sb.toString();
+    }
 
-        return String.format("Cart [ID=%d, Type=%s, Items: %s]", cartId, type, llistaItems);
+    /**
+     * APPENDABLE: Escriu "Cart [ID=..., Type=..., Items: [nom1, nom2]]"
+     * directament a la destinació, nom a nom, sense passar per Streams,
+     * Collectors.joining() ni String.format() (que creen Strings intermedis).
+     *
+     * Si la col·lecció LAZY no s'ha carregat, no s'hi accedeix (evita
+     * LazyInitializationException i consultes amagades dins un toString).
+     */
+    public Appendable appendTo(Appendable out) throws IOException {
+        out.append("Cart [ID=");
+        Item.appendLong(out, cartId);
+        out.append(", Type=").append(type).append(", Items: ");
+
+        if (!Hibernate.isInitialized(items)) {
+            out.append("[no carregats]");
+        } else {
+            out.append('[');
+            if (items != null) {
+                boolean first = true;
+                for (Item item : items) {
+                    if (!first) out.append(", ");
+                    out.append(item.getName());
+                    first = false;
+                }
+            }
+            out.append(']');
+        }
+        return out.append(']');
     }
     
     /**
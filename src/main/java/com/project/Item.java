@@ -1,6 +1,8 @@
 package com.project;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
 import java.util.Objects;
 
 /**
@@ -47,12 +49,42 @@ public class Item implements Serializable {
     public void setCart(Cart cart) { this.cart = cart; }
 
     /**
-     * STRING.FORMAT: Crea una cadena formatada substituint %d per enters
-     * i %s per strings. Més llegible que concatenar amb +.
+     * Mateix text que appendTo(), construït en un StringBuilder.
      */
     @Override
     public String toString() {
-        return String.format("Item [ID=%d, Name=%s]", itemId, name);
+        StringBuilder sb = new StringBuilder(32);
+        try {
+            appendTo(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder no en llança mai
+        }
+        return sb.toString();
+    }
+
+    /**
+     * APPENDABLE: Escriu "Item [ID=..., Name=...]" directament a la
+     * destinació (StringBuilder, Writer...) sense crear Strings
+     * intermedis com fa String.format().
+     */
+    public Appendable appendTo(Appendable out) throws IOException {
+        out.append("Item [ID=");
+        appendLong(out, itemId);
+        return out.append(", Name=").append(name).append(']');
+    }
+
+    /**
+     * Escriu un número. StringBuilder té append(long), que no crea cap
+     * String; per a la resta, un sol Long.toString(). Escriure'l xifra a
+     * xifra seria pitjor: a un PrintStream, cada append(char) crea un
+     * String i agafa el bloqueig del flux.
+     */
+    static void appendLong(Appendable out, long value) throws IOException {
+        if (out instanceof StringBuilder sb) {
+            sb.append(value);
+        } else {
+            out.append(Long.toString(value));
+        }
     }
 
     /**
@@ -1,6 +1,10 @@
 package com.project;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -121,15 +125,32 @@ public class Main {
 
     /**
      * Mètode auxiliar per mostrar l'estat actual de la base de dades.
-     * Llista tots els Carts i tots els Items.
+     * Llista tots els Carts (amb els seus Items, en una sola consulta)
+     * i tots els Items (amb la cache de consultes: si no hi ha hagut
+     * canvis a la taula Item, no es torna a consultar la BBDD).
+     *
+     * writeCollection() escriu cada element directament a un BufferedWriter
+     * sobre System.out, sense muntar abans tot el llistat en un String.
+     * BUFFEREDWRITER: Els trossos petits (", ", ']', '\n') s'acumulen en
+     * memòria i arriben a System.out en poques escriptures; escrits
+     * directament al PrintStream, cadascun agafaria el bloqueig del flux.
+     * No es tanca (tancaria System.out): només es fa flush() al final.
      */
     private static void printState(String title) {
-        System.out.println("\n[" + title + "]");
-        System.out.println("CARTS:");
-        System.out.println(Manager.collectionToString(Manager.listCollection(Cart.class)));
-        System.out.println("ITEMS:");
-        System.out.println(Manager.collectionToString(Manager.listCollection(Item.class)));
-        System.out.println("------------------------------\n");
+        BufferedWriter out = new BufferedWriter(new OutputStreamWriter(System.out, System.out.charset()));
+        try {
+            out.write("\n[" + title + "]\n");
+            out.write("CARTS:\n");
+            Manager.writeCollection(Manager.listCartsWithItems(), out);
+            out.newLine();
+            out.write("ITEMS:\n");
+            Manager.writeCollection(Manager.listCollection(Item.class, "", true), out);
+            out.newLine();
+            out.write("------------------------------\n\n");
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     /**
@@ -1,18 +1,47 @@
 package com.project;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.hibernate.Hibernate;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session; 
 import org.hibernate.Transaction;
 import org.hibernate.SessionFactory;
+import org.hibernate.SharedSessionContract;
+import org.hibernate.StatelessSession;
+import org.hibernate.FlushMode;
 import org.hibernate.cfg.Configuration;
 import org.hibernate.query.NativeQuery;
+import org.hibernate.query.SelectionQuery;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import com.project.bulk.BulkProgress;
+import com.project.bulk.ItemRecord;
+import com.project.metrics.HibernateCounters;
+import com.project.metrics.JmxMetricsRegistry;
+import com.project.metrics.MetricsRegistry;
+import com.project.utils.SQLitePragmas;
+
+import jakarta.persistence.PersistenceUnitUtil;
 
 /**
  * Classe Manager: Gestiona totes les operacions amb la base de dades.
@@ -28,20 +57,117 @@ public class Manager {
      */
     private static SessionFactory factory;
 
+    /**
+     * BATCH SIZE: Nombre d'entitats que s'agrupen en un lot JDBC i cada
+     * quantes insercions es buida el context de persistència (flush/clear).
+     * Es llegeix de "hibernate.jdbc.batch_size" en crear la SessionFactory.
+     */
+    private static final int DEFAULT_BATCH_SIZE = 50;
+    private static int batchSize = DEFAULT_BATCH_SIZE;
+
+    // Cada quantes files s'informa del progrés en les càrregues massives
+    private static final int BULK_PROGRESS_INTERVAL = 10_000;
+
+    // Màxim d'IDs per clàusula "IN (...)" en una sola sentència
+    private static final int MAX_IN_PARAMETERS = 1000;
+
+    // Mètriques per operació (vegeu executeInTransactionWithResult)
+    private static MetricsRegistry metrics = new JmxMetricsRegistry();
+
+    // Reintents davant de SQLITE_BUSY/SQLITE_LOCKED (propietats "manager.retry.*")
+    private static RetryPolicy retryPolicy = RetryPolicy.NONE;
+
+    /**
+     * ESCRIPTOR ÚNIC: SQLite només admet un escriptor alhora. Totes les
+     * escriptures del Manager passen per una cua que buida un sol fil
+     * (vegeu WriteScheduler). Les lectures no hi passen i, amb WAL,
+     * s'executen en paral·lel amb l'escriptor.
+     */
+    private static final int DEFAULT_WRITE_GROUP_SIZE = 32;
+    private static volatile WriteScheduler writer;
+
+    // Lectures en mode només lectura (propietat "manager.read_only_queries")
+    private static boolean readOnlyQueries = true;
+
+    // Regió de la cache de segon nivell de la col·lecció Cart.items
+    private static final String CART_ITEMS_ROLE = Cart.class.getName() + ".items";
+
+    // Fetch profile de Cart.hbm.xml que carrega el Cart amb els seus Items
+    public static final String FETCH_CART_WITH_ITEMS = "cart-with-items";
+
     /**
      * Carrega la configuració d'Hibernate des de hibernate.cfg.xml
      * i crea la SessionFactory. S'ha de cridar al principi de l'aplicació.
      */
     public static void createSessionFactory() {
+        createSessionFactory("hibernate.cfg.xml", new Properties());
+    }
+
+    /**
+     * Variant parametritzable: permet indicar un fitxer de configuració
+     * alternatiu (per exemple, amb un altre generador d'IDs) i sobreescriure
+     * propietats de hibernate.properties (URL de la BBDD, hbm2ddl, etc.).
+     * S'utilitza als benchmarks per crear bases de dades temporals.
+     */
+    public static void createSessionFactory(String configResource, Properties overrides) {
         try {
-            factory = new Configuration().configure().buildSessionFactory();
+            Configuration configuration = new Configuration().configure(configResource);
+            configuration.addProperties(overrides);
+            applySQLitePragmas(configuration);
+            factory = configuration.buildSessionFactory();
+            // batch_size=0 (sense lots) és vàlid per Hibernate; aquí es fa servir
+            // com a interval de flush/clear, així que com a mínim ha de ser 1
+            batchSize = Math.max(1, intProperty(configuration.getProperties(), 
+                "hibernate.jdbc.batch_size", DEFAULT_BATCH_SIZE));
+            retryPolicy = RetryPolicy.fromProperties(configuration.getProperties());
+            readOnlyQueries = Boolean.parseBoolean(
+                configuration.getProperties().getOrDefault("manager.read_only_queries", "true").toString().trim());
+            // Si ja n'hi havia un (SessionFactory anterior), s'atura abans de substituir-lo
+            if (writer != null) writer.shutdown();
+            writer = new WriteScheduler(intProperty(configuration.getProperties(), 
+                "manager.writer.max_group_size", DEFAULT_WRITE_GROUP_SIZE));
         } catch (Throwable ex) { 
             System.err.println("Failed to create sessionFactory object." + ex);
             throw new ExceptionInInitializerError(ex); 
         }
     }
 
+    /**
+     * PERFIL DE PRAGMAS: Copia les propietats "sqlite.pragma.*" com a
+     * propietats del driver JDBC, tant pel pool integrat d'Hibernate
+     * (hibernate.connection.*) com per HikariCP (hibernate.hikari.dataSource.*).
+     * El driver sqlite-jdbc les aplica en obrir cada connexió.
+     */
+    private static void applySQLitePragmas(Configuration configuration) {
+        Properties pragmas = SQLitePragmas.fromProperties(configuration.getProperties());
+        for (String name : pragmas.stringPropertyNames()) {
+            configuration.setProperty("hibernate.connection." + name, pragmas.getProperty(name));
+            configuration.setProperty("hibernate.hikari.dataSource." + name, pragmas.getProperty(name));
+        }
+    }
+
+    /**
+     * Mida màxima del pool de connexions (hibernate.hikari.maximumPoolSize).
+     * Serveix per limitar quantes transaccions concurrents té sentit llançar.
+     */
+    public static int getConnectionPoolSize() {
+        return intProperty(factory.getProperties(), "hibernate.hikari.maximumPoolSize", 10);
+    }
+
+    private static int intProperty(Map<?, ?> props, String key, int defaultValue) {
+        Object value = props.get(key);
+        return value == null ? defaultValue : Integer.parseInt(value.toString().trim());
+    }
+
+    /**
+     * Primer s'atura l'escriptor (acabant les escriptures pendents)
+     * i després es tanca la SessionFactory.
+     */
     public static void close() {
+        if (writer != null) {
+            writer.shutdown();
+            writer = null;
+        }
         if (factory != null) factory.close();
     }
   
@@ -62,16 +188,11 @@ public class Manager {
      * - Si tot va bé → commit() (guarda els canvis)
      * - Si hi ha error → rollback() (desfà tots els canvis)
      */
-    private static void executeInTransaction(Consumer<Session> action) {
-        Transaction tx = null;
-        try (Session session = factory.openSession()) {
-            tx = session.beginTransaction();
+    private static void executeInTransaction(String operation, Consumer<Session> action) {
+        executeInTransactionWithResult(operation, session -> {
             action.accept(session);
-            tx.commit();
-        } catch (Exception e) {
-            if (tx != null && tx.isActive()) tx.rollback();
-            throw new RuntimeException("Error en transacció Hibernate", e);
-        }
+            return null;
+        });
     }
 
     /**
@@ -81,20 +202,383 @@ public class Manager {
      * 
      * GENÈRICS <T>: Permet que el mètode retorni qualsevol tipus d'objecte
      * (Cart, Item, List<Cart>, etc.) sense duplicar codi.
+     * 
+     * MÈTRIQUES: Cada transacció es registra amb el nom de l'operació:
+     * durada, èxit/error i el cost en sentències, sessions, flushes, errades
+     * de cache i entitats carregades (delta de les Statistics d'Hibernate).
      */
-    private static <T> T executeInTransactionWithResult(Function<Session, T> action) {
+    private static <T> T executeInTransactionWithResult(String operation, Function<Session, T> action) {
+        return measure(operation, () -> executeWithRetry(operation, () -> runInSession(false, action)));
+    }
+
+    /**
+     * LECTURES NOMÉS LECTURA: Com executeInTransactionWithResult, però la
+     * sessió es marca amb:
+     * - setDefaultReadOnly(true): les entitats carregades no guarden la
+     *   còpia ("snapshot") de l'estat inicial que serveix per detectar canvis
+     * - FlushMode.MANUAL: en fer commit no hi ha flush ni dirty-checking
+     * 
+     * Menys memòria per entitat i un commit que no recorre el resultat.
+     * La cache de segon nivell i els fetch profiles funcionen igual.
+     * Amb manager.read_only_queries=false es comporta com una transacció normal.
+     */
+    private static <T> T executeReadOnly(String operation, Function<Session, T> action) {
+        return measure(operation, () -> executeWithRetry(operation, () -> runInSession(readOnlyQueries, action)));
+    }
+
+    /**
+     * STATELESSSESSION: Sessió sense context de persistència (ni cache de
+     * primer nivell, ni snapshots, ni cascades, ni cache de segon nivell).
+     * Cada entitat llegida es retorna directament i no queda referenciada
+     * per Hibernate. Ideal per llistats grans que no necessiten la cache.
+     * Les col·leccions lazy de les entitats queden sense carregar.
+     * 
+     * SHAREDSESSIONCONTRACT: Interfície comuna de Session i StatelessSession
+     * (createSelectionQuery...). Amb manager.read_only_queries=false la
+     * mateixa acció s'executa sobre una Session normal.
+     */
+    private static <T> T executeStateless(String operation, Function<SharedSessionContract, T> action) {
+        if (!readOnlyQueries) {
+            return executeInTransactionWithResult(operation, action::apply);
+        }
+        return measure(operation, () -> executeWithRetry(operation, () -> runStateless(action)));
+    }
+
+    private static <T> T runStateless(Function<? super StatelessSession, T> action) {
+        Transaction tx = null;
+        try (StatelessSession session = factory.openStatelessSession()) {
+            tx = session.beginTransaction();
+            T result = action.apply(session);
+            tx.commit();
+            return result;
+        } catch (RuntimeException e) {
+            if (tx != null && tx.isActive()) tx.rollback();
+            throw e;
+        }
+    }
+
+    private static <T> T runInSession(boolean readOnly, Function<Session, T> action) {
         Transaction tx = null;
         try (Session session = factory.openSession()) {
+            if (readOnly) {
+                session.setDefaultReadOnly(true);
+                session.setHibernateFlushMode(FlushMode.MANUAL);
+            }
             tx = session.beginTransaction();
             T result = action.apply(session);
             tx.commit();
             return result;
-        } catch (Exception e) {
+        } catch (RuntimeException e) {
             if (tx != null && tx.isActive()) tx.rollback();
-            throw new RuntimeException("Error en transacció Hibernate", e);
+            throw e;
+        }
+    }
+
+    /**
+     * MÈTRIQUES: Durada, èxit/error i el delta de les Statistics d'Hibernate
+     * de tota l'operació (reintents inclosos).
+     */
+    private static <T> T measure(String operation, Supplier<T> body) {
+        HibernateCounters before = HibernateCounters.read(factory.getStatistics());
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = body.get();
+            success = true;
+            return result;
+        } finally {
+            HibernateCounters after = HibernateCounters.read(factory.getStatistics());
+            metrics.record(operation, System.nanoTime() - start, success, after.minus(before));
         }
     }
 
+    /**
+     * REINTENTS: Si la transacció falla per un bloqueig transitori de SQLite
+     * (SQLITE_BUSY / SQLITE_LOCKED), es desfà, s'espera un temps creixent
+     * (backoff exponencial amb jitter) i es torna a executar l'acció sencera
+     * en una sessió nova. Qualsevol altre error es propaga a la primera.
+     * Cada reintent es compta a les mètriques de l'operació.
+     * 
+     * "transaction" executa UNA transacció completa i la desfà si falla.
+     */
+    private static <T> T executeWithRetry(String operation, Supplier<T> transaction) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transaction.get();
+            } catch (Exception e) {
+                if (!retryPolicy.shouldRetry(attempt, e)) {
+                    throw new RuntimeException("Error en transacció Hibernate", e);
+                }
+            }
+            metrics.recordRetry(operation);
+            sleep(retryPolicy.backoffMillis(attempt));
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Reintent interromput", e);
+        }
+    }
+
+    /**
+     * ESCRIPTURES: Igual que executeInTransactionWithResult, però l'acció
+     * s'envia a la cua de l'escriptor únic i qui crida espera el resultat.
+     * Si l'escriptor no està actiu (o ja som al seu fil), s'executa directament.
+     */
+    private static <T> T executeWrite(String operation, Function<Session, T> action) {
+        WriteScheduler current = writer;
+        if (current == null || current.isWriterThread()) {
+            return executeInTransactionWithResult(operation, action);
+        }
+        return join(current.submit(operation, action));
+    }
+
+    private static void executeWrite(String operation, Consumer<Session> action) {
+        executeWrite(operation, session -> {
+            action.accept(session);
+            return null;
+        });
+    }
+
+    /**
+     * ESCRIPTURES AMB STATELESSSESSION: L'acció rep una StatelessSession amb
+     * la seva pròpia transacció (i connexió). Passa per l'escriptor únic,
+     * però no s'agrupa amb altres escriptures: el grup tindria una altra
+     * connexió amb escriptures pendents i SQLite només admet un escriptor.
+     */
+    private static <T> T executeStatelessWrite(String operation, Function<StatelessSession, T> action) {
+        Supplier<T> transaction = () -> runStateless(action);
+        WriteScheduler current = writer;
+        if (current == null || current.isWriterThread()) {
+            return measure(operation, () -> executeWithRetry(operation, transaction));
+        }
+        return join(current.submitAlone(operation, transaction));
+    }
+
+    private static <T> T join(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    /**
+     * Només per als tests: encua una escriptura sense esperar-ne el resultat
+     * i consulta quantes n'hi ha a la cua, per poder forçar un grup concret.
+     */
+    static <T> CompletableFuture<T> submitWrite(String operation, Function<Session, T> action) {
+        return writer.submit(operation, action);
+    }
+
+    static int pendingWrites() {
+        return writer.pending();
+    }
+
+    /**
+     * WRITE SCHEDULER: Fil dedicat que buida una cua d'accions d'escriptura.
+     * 
+     * GROUP COMMIT: Si quan l'escriptor queda lliure hi ha diverses accions
+     * a la cua, les executa totes en UNA sola transacció (un sol commit i un
+     * sol fsync) i després completa el CompletableFuture de cada una.
+     * Les tasques amb transacció pròpia (StatelessSession) s'executen soles,
+     * en el seu ordre dins la cua.
+     * Si la transacció del grup falla, es repeteix cada acció en la seva
+     * pròpia transacció perquè l'error només afecti qui l'ha provocat.
+     * 
+     * FLUSH/CLEAR entre accions: cada acció troba la sessió buida, com si
+     * tingués la seva pròpia transacció. Sense clear(), una acció podria
+     * rebre una entitat carregada per una acció anterior sense els canvis
+     * fets amb UPDATE massius (updateCart) i, en fer flush, desfer-los.
+     * 
+     * MÈTRIQUES: Cada acció del grup es registra amb el seu propi nom
+     * d'operació (addItem, updateCart...), amb la seva durada i el delta de
+     * les Statistics d'Hibernate. Si el grup falla no es registra res: les
+     * execucions individuals que el substitueixen ja compten èxits i errors.
+     */
+    private static final class WriteScheduler {
+
+        // Una tasca té "action" (s'executa dins la Session del grup) o "transaction" (s'executa sola)
+        private record WriteTask(String operation, Function<Session, ?> action, Supplier<?> transaction,
+                                 CompletableFuture<Object> result) {}
+
+        private static final WriteTask STOP = new WriteTask("stop", null, null, null);
+
+        // Mètriques d'una acció dins un grup, que es registren si el grup fa commit
+        private record Sample(String operation, long nanos, HibernateCounters counters) {}
+
+        private final BlockingQueue<WriteTask> queue = new LinkedBlockingQueue<>();
+        private final int maxGroupSize;
+        private final Thread thread;
+        private boolean closed;
+
+        WriteScheduler(int maxGroupSize) {
+            this.maxGroupSize = maxGroupSize;
+            this.thread = new Thread(this::run, "sqlite-writer");
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        boolean isWriterThread() {
+            return Thread.currentThread() == thread;
+        }
+
+        int pending() {
+            return queue.size();
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> CompletableFuture<T> submit(String operation, Function<Session, T> action) {
+            CompletableFuture<Object> result = new CompletableFuture<>();
+            enqueue(new WriteTask(operation, action, null, result));
+            return (CompletableFuture<T>) (CompletableFuture<?>) result;
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> CompletableFuture<T> submitAlone(String operation, Supplier<T> transaction) {
+            CompletableFuture<Object> result = new CompletableFuture<>();
+            enqueue(new WriteTask(operation, null, transaction, result));
+            return (CompletableFuture<T>) (CompletableFuture<?>) result;
+        }
+
+        /**
+         * Encua una tasca o, si l'escriptor ja s'ha aturat, la fa fallar.
+         * El bloqueig garanteix que cap tasca entra a la cua després de STOP:
+         * totes les acceptades s'executen abans que el fil acabi.
+         */
+        private synchronized void enqueue(WriteTask task) {
+            if (closed) {
+                task.result().completeExceptionally(new IllegalStateException("L'escriptor del Manager està aturat"));
+                return;
+            }
+            queue.add(task);
+        }
+
+        void shutdown() {
+            synchronized (this) {
+                if (closed) return;
+                closed = true;
+                queue.add(STOP);
+            }
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void run() {
+            List<WriteTask> group = new ArrayList<>(maxGroupSize);
+            boolean stopping = false;
+            while (!stopping) {
+                try {
+                    group.add(queue.take());
+                } catch (InterruptedException e) {
+                    break;
+                }
+                queue.drainTo(group, maxGroupSize - 1);
+                stopping = group.removeIf(task -> task == STOP);
+                runInOrder(group);
+                group.clear();
+            }
+            // Si el fil s'ha interromput, les escriptures encuades s'executen igualment
+            List<WriteTask> pending = new ArrayList<>();
+            queue.drainTo(pending);
+            pending.removeIf(task -> task == STOP);
+            pending.forEach(this::runAlone);
+        }
+
+        private void runInOrder(List<WriteTask> tasks) {
+            List<WriteTask> group = new ArrayList<>(tasks.size());
+            for (WriteTask task : tasks) {
+                if (task.transaction() == null) {
+                    group.add(task);
+                    continue;
+                }
+                runGroup(group);
+                group.clear();
+                runAlone(task);
+            }
+            runGroup(group);
+        }
+
+        private void runGroup(List<WriteTask> group) {
+            if (group.isEmpty()) return;
+            if (group.size() == 1) {
+                runAlone(group.get(0));
+                return;
+            }
+            List<Object> results;
+            List<Sample> samples = new ArrayList<>(group.size());
+            long start = System.nanoTime();
+            try {
+                results = executeWithRetry("groupCommit", () -> runInSession(false, session -> {
+                    samples.clear();
+                    List<Object> values = new ArrayList<>(group.size());
+                    for (WriteTask task : group) {
+                        HibernateCounters before = HibernateCounters.read(factory.getStatistics());
+                        long taskStart = System.nanoTime();
+                        values.add(task.action().apply(session));
+                        session.flush();
+                        session.clear();
+                        samples.add(new Sample(task.operation(), System.nanoTime() - taskStart,
+                            HibernateCounters.read(factory.getStatistics()).minus(before)));
+                    }
+                    return values;
+                }));
+            } catch (RuntimeException e) {
+                group.forEach(this::runAlone);
+                return;
+            }
+            // El temps comú (obrir la sessió, commit, reintents) es reparteix entre les accions
+            long shared = (System.nanoTime() - start - samples.stream().mapToLong(Sample::nanos).sum()) / group.size();
+            for (Sample sample : samples) {
+                metrics.record(sample.operation(), sample.nanos() + shared, true, sample.counters());
+            }
+            for (int i = 0; i < group.size(); i++) {
+                group.get(i).result().complete(results.get(i));
+            }
+        }
+
+        private void runAlone(WriteTask task) {
+            try {
+                task.result().complete(task.transaction() != null
+                    ? measure(task.operation(), () -> executeWithRetry(task.operation(), task.transaction()))
+                    : executeInTransactionWithResult(task.operation(), task.action()));
+            } catch (Throwable e) {
+                task.result().completeExceptionally(e);
+            }
+        }
+    }
+
+    // ============================================================
+    // MÈTRIQUES
+    // ============================================================
+
+    /**
+     * Registre on es publiquen les mètriques de cada operació.
+     * Per defecte JMX; els tests poden posar un InMemoryMetricsRegistry.
+     */
+    public static MetricsRegistry getMetricsRegistry() {
+        return metrics;
+    }
+
+    public static void setMetricsRegistry(MetricsRegistry registry) {
+        metrics = registry;
+    }
+
+    /**
+     * Estadístiques globals d'Hibernate (hibernate.generate_statistics=true).
+     */
+    public static Statistics getStatistics() {
+        return factory.getStatistics();
+    }
+
     // ============================================================
     // OPERACIONS CRUD (Create, Read, Update, Delete)
     // ============================================================
@@ -105,7 +589,7 @@ public class Manager {
      * es faci commit(). Hibernate assignarà l'ID automàticament.
      */
     public static Cart addCart(String type) {
-        return executeInTransactionWithResult(session -> {
+        return executeWrite("addCart", session -> {
             Cart cart = new Cart(type);
             session.persist(cart);
             return cart;
@@ -113,13 +597,167 @@ public class Manager {
     }
 
     public static Item addItem(String name) {
-        return executeInTransactionWithResult(session -> {
+        return executeWrite("addItem", session -> {
             Item item = new Item(name);
             session.persist(item);
             return item;
         });
     }
 
+    /**
+     * INSERCIÓ MASSIVA: Totes les entitats es guarden en UNA sola transacció
+     * (un sol commit/fsync a SQLite) en lloc d'una transacció per element.
+     * 
+     * FLUSH/CLEAR PERIÒDIC: Cada "batchSize" entitats, flush() envia els
+     * INSERT pendents com un lot JDBC i clear() buida el context de
+     * persistència, de manera que la memòria no creix amb el volum d'entrada.
+     * Els lots només es formen amb el mapeig opcional "increment"
+     * (hibernate-increment.cfg.xml); amb "native", cada persist() fa el
+     * seu INSERT per obtenir l'ID.
+     * 
+     * Retorna els IDs generats en el mateix ordre que els noms d'entrada.
+     */
+    public static List<Long> addCarts(Collection<String> types) {
+        return executeWrite("addCarts", session -> {
+            List<Long> ids = new ArrayList<>(types.size());
+            for (String type : types) {
+                Cart cart = new Cart(type);
+                session.persist(cart);
+                ids.add(cart.getCartId());
+                if (ids.size() % batchSize == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            return ids;
+        });
+    }
+
+    public static List<Long> addItems(Collection<String> names) {
+        return executeWrite("addItems", session -> {
+            List<Long> ids = new ArrayList<>(names.size());
+            for (String name : names) {
+                Item item = new Item(name);
+                session.persist(item);
+                ids.add(item.getItemId());
+                if (ids.size() % batchSize == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            return ids;
+        });
+    }
+
+    /**
+     * IMPORTACIÓ MASSIVA AMB STATELESSSESSION: Insereix Carts i Items a
+     * partir d'un flux de registres sense context de persistència, de manera
+     * que la memòria no creix amb la mida de l'entrada.
+     * - insert(): INSERT directe, sense cascades ni cache de primer nivell
+     * - MAPA DE CLAUS NATURALS: type del Cart -> ID. Es carrega amb els Carts
+     *   existents i creix amb els nous; per cada Item només es crea una
+     *   referència amb l'ID (no es consulta el Cart)
+     * 
+     * Tota la importació és UNA escriptura (una transacció) que passa per
+     * l'escriptor únic. La StatelessSession obre la seva pròpia transacció:
+     * només així Hibernate agrupa els INSERT en lots JDBC (setJdbcBatchSize);
+     * amb una connexió prestada sense transacció pròpia, cada fila seria
+     * una sentència. Com a addCarts, els lots requereixen el mapeig "increment".
+     * 
+     * ITERABLE: Si cal reintentar (SQLITE_BUSY), l'entrada es torna a
+     * recórrer des del principi; per això no pot ser un Iterator d'un sol ús.
+     * 
+     * CACHE: Els INSERT de la StatelessSession no passen per la cache de
+     * segon nivell, així que en acabar es buiden les col·leccions Cart.items
+     * i les consultes cachejades.
+     * 
+     * "progress" rep el progrés cada BULK_PROGRESS_INTERVAL files; el
+     * resultat és el progrés final (files importades i temps total).
+     */
+    public static BulkProgress importItems(Iterable<ItemRecord> records, Consumer<BulkProgress> progress) {
+        BulkProgress result = executeStatelessWrite("importItems", stateless -> {
+            stateless.setJdbcBatchSize(batchSize);
+            return importItems(stateless, records, progress);
+        });
+        factory.getCache().evictCollectionData(CART_ITEMS_ROLE);
+        factory.getCache().evictQueryRegions();
+        return result;
+    }
+
+    private static BulkProgress importItems(StatelessSession stateless, Iterable<ItemRecord> records, 
+            Consumer<BulkProgress> progress) {
+        Map<String, Cart> carts = new HashMap<>();
+        for (Object[] row : stateless.createSelectionQuery(
+                "SELECT c.type, c.cartId FROM Cart c ORDER BY c.cartId", Object[].class).list()) {
+            carts.putIfAbsent((String) row[0], reference((Long) row[1]));
+        }
+
+        long start = System.nanoTime();
+        long rows = 0;
+        for (ItemRecord record : records) {
+            Cart cart = null;
+            if (record.cartType() != null) {
+                cart = carts.get(record.cartType());
+                if (cart == null) {
+                    Cart nou = new Cart(record.cartType());
+                    stateless.insert(nou);
+                    cart = reference(nou.getCartId());
+                    carts.put(record.cartType(), cart);
+                }
+            }
+            if (record.itemName() != null) {
+                Item item = new Item(record.itemName());
+                item.setCart(cart);
+                stateless.insert(item);
+            }
+            if (++rows % BULK_PROGRESS_INTERVAL == 0) {
+                progress.accept(new BulkProgress(rows, System.nanoTime() - start));
+            }
+        }
+        BulkProgress result = new BulkProgress(rows, System.nanoTime() - start);
+        progress.accept(result);
+        return result;
+    }
+
+    // Cart amb només l'ID: n'hi ha prou perquè l'Item escrigui la seva FK
+    private static Cart reference(long cartId) {
+        Cart cart = new Cart();
+        cart.setCartId(cartId);
+        return cart;
+    }
+
+    /**
+     * EXPORTACIÓ MASSIVA: Recorre tots els Carts (amb els seus Items) i els
+     * Items sense Cart amb una StatelessSession i un cursor (scroll), i
+     * envia cada fila a "sink" com a ItemRecord. Es consulten només les
+     * columnes necessàries (type, name), sense crear entitats.
+     * El resultat es pot tornar a carregar amb importItems().
+     */
+    public static BulkProgress exportItems(Consumer<ItemRecord> sink, Consumer<BulkProgress> progress) {
+        return executeStateless("exportItems", session -> {
+            long start = System.nanoTime();
+            long rows = 0;
+            for (String hql : List.of(
+                    "SELECT c.type, i.name FROM Cart c LEFT JOIN c.items i ORDER BY c.cartId, i.itemId",
+                    "SELECT CAST(NULL AS String), i.name FROM Item i WHERE i.cart IS NULL ORDER BY i.itemId")) {
+                try (ScrollableResults<Object[]> results = session.createSelectionQuery(hql, Object[].class)
+                        .setFetchSize(batchSize)
+                        .scroll(ScrollMode.FORWARD_ONLY)) {
+                    while (results.next()) {
+                        Object[] row = results.get();
+                        sink.accept(new ItemRecord((String) row[0], (String) row[1]));
+                        if (++rows % BULK_PROGRESS_INTERVAL == 0) {
+                            progress.accept(new BulkProgress(rows, System.nanoTime() - start));
+                        }
+                    }
+                }
+            }
+            BulkProgress result = new BulkProgress(rows, System.nanoTime() - start);
+            progress.accept(result);
+            return result;
+        });
+    }
+
     /**
      * GET: Recupera una entitat per la seva clau primària (ID).
      * Retorna null si no existeix. És una operació de lectura.
@@ -128,7 +766,7 @@ public class Manager {
      * de l'objecte "detached" a un objecte "managed" i el sincronitza.
      */
     public static void updateItem(long itemId, String name) {
-        executeInTransaction(session -> {
+        executeWrite("updateItem", session -> {
             Item item = session.get(Item.class, itemId);
             if (item != null) {
                 item.setName(name);
@@ -138,53 +776,97 @@ public class Manager {
     }
 
     /**
-     * ACTUALITZACIÓ DE RELACIONS BIDIRECCIONALS:
-     * 1. Primer netegem la relació existent (removeItem desvincula cada Item)
-     * 2. Després afegim els nous Items (addItem vincula cada Item al Cart)
+     * ACTUALITZACIÓ DE RELACIONS PER DIFERÈNCIA:
+     * En lloc de carregar el Cart i desvincular/revincular cada Item
+     * (N+1 SELECTs i un UPDATE per Item), es compara el conjunt d'IDs actual
+     * (columna cartId de la taula Item) amb el nou conjunt i s'apliquen
+     * només els canvis amb UPDATEs massius (HQL "bulk update"):
+     * 1. Items que surten del Cart → cartId = NULL
+     * 2. Items que entren al Cart → cartId = cartId
+     * Els Items que ja hi eren i s'hi queden no generen cap sentència.
      * 
-     * LIST.COPYOF: Creem una còpia immutable de la col·lecció per evitar
-     * ConcurrentModificationException (no pots modificar una col·lecció
-     * mentre la recorres amb un forEach).
+     * Els UPDATE massius no passen pel context de persistència, per això
+     * aquí no es carrega cap Item. Els IDs que no existeixen s'ignoren.
+     * 
+     * TYPE: El Cart sí que es carrega (normalment des de la cache de segon
+     * nivell) i el type es canvia a l'entitat: el dirty-checking fa l'UPDATE
+     * només si ha canviat i actualitza només aquella entrada de la cache.
+     * Un UPDATE massiu sobre Cart faria que Hibernate buidés senceres les
+     * regions de cache de Cart, Item i Cart.items a cada crida.
      */
     public static void updateCart(long cartId, String type, Set<Item> newItems) {
-        executeInTransaction(session -> {
+        executeWrite("updateCart", session -> {
             Cart cart = session.get(Cart.class, cartId);
             if (cart == null) return;
-            
             cart.setType(type);
             
-            // Si newItems és null, no toquem les relacions existents
-            if (newItems != null) {
+            // Si newItems és null, no toquem les relacions
+            if (newItems == null) return;
 
-                // 1. Netejar items existents
-                if (cart.getItems() != null && !cart.getItems().isEmpty()) {
-                    List<Item> itemsToRemove = List.copyOf(cart.getItems());
-                    itemsToRemove.forEach(cart::removeItem);
-                }
+            Set<Long> currentIds = new HashSet<>(session.createSelectionQuery(
+                    "SELECT i.itemId FROM Item i WHERE i.cart.cartId = :cartId", Long.class)
+                .setParameter("cartId", cartId)
+                .list());
+            Set<Long> targetIds = new HashSet<>();
+            for (Item item : newItems) {
+                targetIds.add(item.getItemId());
+            }
 
-                // 2. Afegir nous items (recuperant-los com a "managed")
-                for (Item item : newItems) {
-                    Item managedItem = session.get(Item.class, item.getItemId());
-                    if (managedItem != null) {
-                        cart.addItem(managedItem);
-                    }
-                }
+            List<Long> toRemove = new ArrayList<>(currentIds);
+            toRemove.removeAll(targetIds);
+            List<Long> toAdd = new ArrayList<>(targetIds);
+            toAdd.removeAll(currentIds);
+
+            // 1. Desvincular els Items que ja no formen part del Cart
+            for (List<Long> ids : partition(toRemove, MAX_IN_PARAMETERS)) {
+                session.createMutationQuery(
+                        "UPDATE Item i SET i.cart = NULL WHERE i.cart.cartId = :cartId AND i.itemId IN (:ids)")
+                    .setParameter("cartId", cartId)
+                    .setParameterList("ids", ids)
+                    .executeUpdate();
             }
 
-            session.merge(cart);
+            // 2. Vincular els Items nous
+            for (List<Long> ids : partition(toAdd, MAX_IN_PARAMETERS)) {
+                session.createMutationQuery(
+                        "UPDATE Item i SET i.cart = :cart WHERE i.itemId IN (:ids)")
+                    .setParameter("cart", cart)
+                    .setParameterList("ids", ids)
+                    .executeUpdate();
+            }
         });
     }
+
+    /**
+     * PARTICIÓ DE LLISTES: Divideix una llista en trossos de com a molt
+     * "size" elements. SQLite limita el nombre de paràmetres per sentència,
+     * així que les clàusules "IN (:ids)" molt grans es fan en diversos blocs.
+     */
+    private static <T> List<List<T>> partition(List<T> list, int size) {
+        List<List<T>> parts = new ArrayList<>();
+        for (int i = 0; i < list.size(); i += size) {
+            parts.add(list.subList(i, Math.min(i + size, list.size())));
+        }
+        return parts;
+    }
     
     /**
-     * HIBERNATE.INITIALIZE: Força la càrrega d'una col·lecció LAZY.
+     * FETCH PROFILE: Cart.items és LAZY (no es carrega amb el Cart).
+     * Activant el perfil "cart-with-items" (definit a Cart.hbm.xml),
+     * session.get() carrega el Cart i els seus Items amb UN sol SELECT
+     * amb LEFT JOIN, en lloc d'un SELECT pel Cart i un altre pels Items.
+     * 
+     * LAZY LOADING: Si accedim a una col·lecció LAZY amb la sessió ja
+     * tancada, obtenim LazyInitializationException. Per això cal carregar
+     * els Items ABANS de tancar la sessió.
      * 
-     * LAZY LOADING: Per defecte, les col·leccions (@OneToMany) NO es carreguen
-     * fins que s'accedeixen. Si la sessió ja està tancada quan hi accedim,
-     * obtenim LazyInitializationException. Amb initialize() carreguem
-     * les dades ABANS de tancar la sessió.
+     * HIBERNATE.INITIALIZE: Si el Cart ve de la cache de segon nivell, no es
+     * fa el JOIN; initialize() carrega llavors la col·lecció (de la cache
+     * Cart.items si hi és). Si el JOIN ja l'ha carregat, no fa res.
      */
     public static Cart getCartWithItems(long cartId) {
-        return executeInTransactionWithResult(session -> {
+        return executeReadOnly("getCartWithItems", session -> {
+            session.enableFetchProfile(FETCH_CART_WITH_ITEMS);
             Cart cart = session.get(Cart.class, cartId);
             if (cart != null) {
                 Hibernate.initialize(cart.getItems());
@@ -193,25 +875,112 @@ public class Manager {
         });
     }
 
+    /**
+     * JOIN FETCH: Llista tots els Carts amb els seus Items en UNA consulta.
+     * Sense el JOIN FETCH, llistar N carrets i recórrer-ne els Items
+     * costaria N+1 consultes. DISTINCT evita repetir el Cart per cada Item.
+     */
+    public static List<Cart> listCartsWithItems() {
+        return executeReadOnly("listCartsWithItems", session -> 
+            session.createSelectionQuery(
+                    "SELECT DISTINCT c FROM Cart c LEFT JOIN FETCH c.items ORDER BY c.cartId", Cart.class)
+                .list());
+    }
+
     /**
      * MÈTODE GENÈRIC: Class<T> permet passar qualsevol tipus d'entitat
      * com a paràmetre (Cart.class, Item.class, etc.).
      * Evita duplicar codi per cada entitat.
      */
     public static <T> T getById(Class<T> clazz, long id) {
-        return executeInTransactionWithResult(session -> session.get(clazz, id));
+        return executeReadOnly("getById", session -> session.get(clazz, id));
+    }
+
+    /**
+     * MULTI-LOAD: Carrega moltes entitats per ID amb UNA sola sessió.
+     * byMultipleIds() agrupa els IDs en consultes "WHERE id IN (...)" de
+     * com a molt "batchSize" elements, en lloc d'un SELECT per ID.
+     * 
+     * El resultat manté l'ordre dels IDs d'entrada i conté null a la
+     * posició dels IDs que no existeixen.
+     */
+    public static <T> List<T> getByIds(Class<T> clazz, Collection<Long> ids, int batchSize) {
+        if (ids == null || ids.isEmpty()) return new ArrayList<>();
+        return executeReadOnly("getByIds", session -> 
+            session.byMultipleIds(clazz)
+                .withBatchSize(batchSize)
+                .multiLoad(new ArrayList<>(ids)));
+    }
+
+    public static <T> List<T> getByIds(Class<T> clazz, Collection<Long> ids) {
+        return getByIds(clazz, ids, MAX_IN_PARAMETERS);
     }
 
     /**
      * REMOVE: Marca l'entitat per ser eliminada de la base de dades.
      * L'eliminació real passa quan es fa commit().
+     * 
+     * CACHE: Si s'esborra un Item, després del commit es treu de la cache
+     * la col·lecció Cart.items del seu Cart (Item és el costat propietari
+     * de la FK, així que esborrar-lo no toca la col·lecció cachejada).
      */
     public static <T> void delete(Class<T> clazz, Serializable id) {
-        executeInTransaction(session -> {
+        T removed = executeWrite("delete", (Session session) -> {
             T obj = session.get(clazz, id);
             if (obj != null) {
                 session.remove(obj);
             }
+            return obj;
+        });
+        // La col·lecció Cart.items cachejada del seu Cart ja no és vàlida
+        if (removed instanceof Item item && item.getCart() != null) {
+            factory.getCache().evictCollectionData(CART_ITEMS_ROLE, item.getCart().getCartId());
+        }
+    }
+
+    /**
+     * ESBORRAT MASSIU (HQL "bulk delete"): Esborra totes les entitats que
+     * compleixen la condició amb UN sol DELETE, sense carregar-les.
+     * Si són Carts, primer s'esborren els seus Items amb un altre DELETE
+     * (el que faria cascade="all", però sense recórrer-los un per un).
+     * 
+     * CACHE: Els DELETE massius no passen pel context de persistència.
+     * Hibernate buida en acabar les regions de la cache de segon nivell de
+     * les taules afectades (entitats Cart/Item i col·lecció Cart.items) i
+     * invalida les consultes cachejades sobre aquestes taules.
+     * 
+     * Retorna el nombre d'entitats de "clazz" esborrades.
+     */
+    public static <T> int deleteWhere(Class<T> clazz, String whereClause) {
+        String where = (whereClause == null || whereClause.trim().isEmpty()) ? "" : " WHERE " + whereClause;
+        return executeWrite("deleteWhere", (Session session) -> {
+            if (clazz == Cart.class) {
+                session.createMutationQuery(
+                        "DELETE FROM Item WHERE cart.cartId IN (SELECT cartId FROM Cart" + where + ")")
+                    .executeUpdate();
+            }
+            return session.createMutationQuery("DELETE FROM " + clazz.getName() + where).executeUpdate();
+        });
+    }
+
+    /**
+     * Esborra els Carts indicats i tots els seus Items amb DELETEs massius
+     * (primer Items, després Carts), en blocs de MAX_IN_PARAMETERS IDs.
+     * Els IDs que no existeixen s'ignoren. Retorna el nombre de Carts esborrats.
+     */
+    public static int deleteCartsCascade(Collection<Long> cartIds) {
+        if (cartIds == null || cartIds.isEmpty()) return 0;
+        return executeWrite("deleteCartsCascade", (Session session) -> {
+            int deleted = 0;
+            for (List<Long> ids : partition(new ArrayList<>(cartIds), MAX_IN_PARAMETERS)) {
+                session.createMutationQuery("DELETE FROM Item i WHERE i.cart.cartId IN (:ids)")
+                    .setParameterList("ids", ids)
+                    .executeUpdate();
+                deleted += session.createMutationQuery("DELETE FROM Cart c WHERE c.cartId IN (:ids)")
+                    .setParameterList("ids", ids)
+                    .executeUpdate();
+            }
+            return deleted;
         });
     }
 
@@ -221,15 +990,86 @@ public class Manager {
      * 
      * "FROM Cart" retorna objectes Cart, no files de taula.
      * clazz.getName() retorna el nom complet de la classe (com.project.Cart).
+     * 
+     * Si la condició depèn de valors variables, millor listWhere() amb
+     * paràmetres: no cal escapar els valors i el pla de la consulta es reutilitza.
      */
     public static <T> List<T> listCollection(Class<T> clazz, String whereClause) {
-        return executeInTransactionWithResult(session -> {
-            String hql = "FROM " + clazz.getName();
-            if (whereClause != null && !whereClause.trim().isEmpty()) {
-                hql += " WHERE " + whereClause;
+        return listCollection(clazz, whereClause, false);
+    }
+
+    /**
+     * QUERY CACHE: Amb cacheable=true, el resultat (la llista d'IDs) es
+     * guarda a la cache de consultes, amb la consulta HQL com a clau
+     * (entitat + clàusula WHERE). Les entitats es resolen després des de la
+     * cache de segon nivell, sense tornar a executar el SELECT.
+     * 
+     * INVALIDACIÓ: Cada escriptura a una taula (persist, merge, remove,
+     * UPDATE/DELETE massius o SQL natiu) actualitza la regió de "timestamps".
+     * Un resultat cachejat més antic que l'última escriptura a la seva taula
+     * es descarta automàticament i la consulta es torna a executar.
+     * 
+     * SENSE CACHE: Amb cacheable=false la consulta no passa per cap cache,
+     * així que es llegeix amb una StatelessSession (vegeu executeStateless).
+     */
+    public static <T> List<T> listCollection(Class<T> clazz, String whereClause, boolean cacheable) {
+        String hql = buildHql(clazz, whereClause);
+        if (!cacheable) {
+            return executeStateless("listCollection", session -> session.createSelectionQuery(hql, clazz).list());
+        }
+        return executeReadOnly("listCollection", session -> 
+            session.createQuery(hql, clazz)
+                .setCacheable(true)
+                .list());
+    }
+
+    /**
+     * CONSULTA AMB PARÀMETRES: Com listCollection, però els valors no es
+     * concatenen a la clàusula WHERE sinó que s'hi posen marcadors (:nom)
+     * i es passen a part, al mapa "params".
+     * Exemple: listWhere(Item.class, "name LIKE :prefix", Map.of("prefix", "Item%"))
+     * 
+     * CACHE DE PLANS: Hibernate guarda el pla de cada text HQL ja
+     * interpretat. Amb paràmetres, el text és sempre el mateix i el pla es
+     * reutilitza; concatenant valors, cada valor diferent és una consulta
+     * nova que s'ha de tornar a interpretar. A més, els paràmetres eviten la
+     * injecció de HQL. El percentatge d'encerts surt a les mètriques.
+     * 
+     * Els valors que són col·leccions es passen com a llista (":ids" a "IN (:ids)").
+     */
+    public static <T> List<T> listWhere(Class<T> clazz, String whereClause, Map<String, ?> params) {
+        String hql = buildHql(clazz, whereClause);
+        return executeStateless("listWhere", session -> 
+            bind(session.createSelectionQuery(hql, clazz), params).list());
+    }
+
+    /**
+     * CONSULTA AMB NOM: Executa una de les consultes <query> declarades
+     * als fitxers .hbm.xml (ex: "Item.byCart"). Hibernate les valida i en
+     * prepara el pla en crear la SessionFactory.
+     */
+    public static <T> List<T> listNamed(String queryName, Class<T> clazz, Map<String, ?> params) {
+        return executeStateless("listNamed", session -> 
+            bind(session.createNamedSelectionQuery(queryName, clazz), params).list());
+    }
+
+    private static <Q extends SelectionQuery<?>> Q bind(Q query, Map<String, ?> params) {
+        for (Map.Entry<String, ?> param : params.entrySet()) {
+            if (param.getValue() instanceof Collection<?> values) {
+                query.setParameterList(param.getKey(), values);
+            } else {
+                query.setParameter(param.getKey(), param.getValue());
             }
-            return session.createQuery(hql, clazz).list();
-        });
+        }
+        return query;
+    }
+
+    private static String buildHql(Class<?> clazz, String whereClause) {
+        String hql = "FROM " + clazz.getName();
+        if (whereClause != null && !whereClause.trim().isEmpty()) {
+            hql += " WHERE " + whereClause;
+        }
+        return hql;
     }
 
     /**
@@ -241,20 +1081,153 @@ public class Manager {
         return listCollection(clazz, "");
     }
 
+    /**
+     * SCROLLABLERESULTS: Recorre el resultat fila a fila amb un cursor JDBC
+     * en lloc de carregar-lo tot en una List amb list().
+     * - setFetchSize(): quantes files demana el driver a cada viatge
+     * - STATELESSSESSION: no hi ha context de persistència, així que les
+     *   entitats ja processades es poden alliberar sense fer clear()
+     *   (amb una Session normal, es buida cada "fetchSize" entitats)
+     * 
+     * L'acció rep cada entitat; no se n'ha de guardar la referència si es
+     * vol mantenir la memòria constant. Retorna el nombre d'entitats recorregudes.
+     * fetchSize ha de ser com a mínim 1.
+     */
+    public static <T> long streamCollection(Class<T> clazz, String whereClause, int fetchSize, 
+            Consumer<? super T> action) {
+        if (fetchSize < 1) throw new IllegalArgumentException("fetchSize ha de ser >= 1");
+        String hql = buildHql(clazz, whereClause);
+        return executeStateless("streamCollection", session -> {
+            long count = 0;
+            try (ScrollableResults<T> results = session.createSelectionQuery(hql, clazz)
+                    .setFetchSize(fetchSize)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (results.next()) {
+                    action.accept(results.get());
+                    if (++count % fetchSize == 0 && session instanceof Session stateful) {
+                        stateful.clear();
+                    }
+                }
+            }
+            return count;
+        });
+    }
+
+    public static <T> long streamCollection(Class<T> clazz, int fetchSize, Consumer<? super T> action) {
+        return streamCollection(clazz, "", fetchSize, action);
+    }
+
+    /**
+     * PAGINACIÓ PER CLAU (KEYSET): Retorna com a molt "pageSize" entitats amb
+     * ID més gran que "lastId", ordenades per ID. A diferència d'OFFSET, el
+     * cost de cada pàgina no creix amb la posició: SQLite salta directament
+     * a l'ID amb l'índex de la clau primària.
+     * 
+     * "id" és el nom especial d'HQL per referir-se a l'identificador de
+     * qualsevol entitat (cartId a Cart, itemId a Item).
+     */
+    public static <T> List<T> listPage(Class<T> clazz, long lastId, int pageSize) {
+        if (pageSize < 1) throw new IllegalArgumentException("pageSize ha de ser >= 1");
+        String hql = "FROM " + clazz.getName() + " e WHERE e.id > :lastId ORDER BY e.id";
+        return executeStateless("listPage", session -> 
+            session.createSelectionQuery(hql, clazz)
+                .setParameter("lastId", lastId)
+                .setMaxResults(pageSize)
+                .list());
+    }
+
+    /**
+     * Recorre tota la taula pàgina a pàgina amb listPage(). Cada pàgina usa
+     * una sessió curta, de manera que no es manté cap transacció oberta
+     * mentre l'acció processa les dades. Retorna el nombre d'entitats recorregudes.
+     * Amb pageSize < 1 el bucle no acabaria mai, per això es rebutja.
+     */
+    public static <T> long forEachByKeyset(Class<T> clazz, int pageSize, Consumer<? super T> action) {
+        if (pageSize < 1) throw new IllegalArgumentException("pageSize ha de ser >= 1");
+        PersistenceUnitUtil util = factory.getPersistenceUnitUtil();
+        long count = 0;
+        long lastId = 0;
+        List<T> page;
+        do {
+            page = listPage(clazz, lastId, pageSize);
+            for (T entity : page) {
+                action.accept(entity);
+                lastId = (Long) util.getIdentifier(entity);
+            }
+            count += page.size();
+        } while (page.size() == pageSize);
+        return count;
+    }
+
     /**
      * STRINGBUILDER: Més eficient que concatenar Strings amb +
      * quan es fan moltes concatenacions (dins un bucle).
      * Cada + amb String crea un objecte nou; StringBuilder modifica el mateix.
      */
     public static <T> String collectionToString(Collection<T> collection) {
-        if (collection == null || collection.isEmpty()) return "[]";
         StringBuilder sb = new StringBuilder();
-        for (T obj : collection) {
-            sb.append(obj.toString()).append("\n");
+        try {
+            writeCollection(collection, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder no en llança mai
         }
         return sb.toString();
     }
 
+    /**
+     * ESCRIPTURA DIRECTA: Mateix text que collectionToString() (un element
+     * per línia, "[]" si és buida) però escrit directament a "out".
+     * Carts i Items s'escriuen amb appendTo(), sense crear cap String per
+     * element; la resta d'objectes amb toString().
+     */
+    public static <T> void writeCollection(Collection<T> collection, Appendable out) throws IOException {
+        if (collection == null || collection.isEmpty()) {
+            out.append("[]");
+            return;
+        }
+        for (T obj : collection) {
+            if (obj instanceof Cart cart) {
+                cart.appendTo(out);
+            } else if (obj instanceof Item item) {
+                item.appendTo(out);
+            } else {
+                out.append(obj.toString());
+            }
+            out.append('\n');
+        }
+    }
+
+    // ============================================================
+    // CACHE DE SEGON NIVELL
+    // ============================================================
+
+    /**
+     * ESTADÍSTIQUES D'UNA REGIÓ: Encerts (hits), errades (misses) i
+     * escriptures (puts) de la cache de segon nivell per una regió.
+     * Els noms de regió són els de les entitats i col·leccions
+     * ("com.project.Cart", "com.project.Item", "com.project.Cart.items").
+     * Requereix hibernate.generate_statistics=true.
+     */
+    public static CacheRegionStatistics getCacheStatistics(String regionName) {
+        return factory.getStatistics().getDomainDataRegionStatistics(regionName);
+    }
+
+    /**
+     * Nombre total d'encerts de la cache de consultes (listCollection
+     * amb cacheable=true) des que es va crear la SessionFactory.
+     */
+    public static long getQueryCacheHitCount() {
+        return factory.getStatistics().getQueryCacheHitCount();
+    }
+
+    /**
+     * Buida totes les regions de la cache de segon nivell. Útil després de
+     * modificar la BBDD per fora d'Hibernate (ex: amb UtilsSQLite).
+     */
+    public static void evictCaches() {
+        factory.getCache().evictAllRegions();
+    }
+
     // ============================================================
     // CONSULTES SQL NATIVES
     // ============================================================
@@ -265,7 +1238,7 @@ public class Manager {
      * executeUpdate() s'usa per INSERT, UPDATE, DELETE (retorna files afectades).
      */
     public static void queryUpdate(String queryString) {
-        executeInTransaction(session -> {
+        executeWrite("queryUpdate", session -> {
             NativeQuery<?> query = session.createNativeQuery(queryString, Void.class);
             query.executeUpdate();
         });
@@ -277,7 +1250,7 @@ public class Manager {
      * Exemple: SELECT id, name FROM items → [0]=id, [1]=name
      */
     public static List<Object[]> queryTable(String queryString) {
-        return executeInTransactionWithResult(session -> {
+        return executeReadOnly("queryTable", session -> {
             NativeQuery<Object[]> query = session.createNativeQuery(queryString, Object[].class);
             return query.getResultList();
         });
@@ -0,0 +1,92 @@
+package com.project;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.hibernate.exception.LockAcquisitionException;
+
+/**
+ * Política de reintents per errors TRANSITORIS de bloqueig de SQLite.
+ * 
+ * SQLITE_BUSY (5) / SQLITE_LOCKED (6): Una altra connexió té el fitxer
+ * bloquejat. No és un error de l'operació: si s'espera una mica i es
+ * torna a provar, normalment funciona. La resta d'errors (SQL incorrecte,
+ * restriccions...) no es reintenten perquè fallarien igual.
+ * 
+ * BACKOFF EXPONENCIAL AMB JITTER: L'espera es duplica a cada intent
+ * (base, 2·base, 4·base... fins a maxDelay) i s'hi aplica un factor
+ * aleatori perquè diversos fils no es tornin a trobar tots alhora.
+ */
+public final class RetryPolicy {
+
+    private static final int SQLITE_BUSY = 5;
+    private static final int SQLITE_LOCKED = 6;
+
+    public static final RetryPolicy NONE = new RetryPolicy(1, 0, 0);
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    public RetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis) {
+        if (maxAttempts < 1) throw new IllegalArgumentException("maxAttempts ha de ser >= 1");
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    /**
+     * Llegeix la política de les propietats "manager.retry.*".
+     */
+    public static RetryPolicy fromProperties(Map<?, ?> props) {
+        return new RetryPolicy(
+            intValue(props, "manager.retry.max_attempts", 5),
+            intValue(props, "manager.retry.base_delay_ms", 10),
+            intValue(props, "manager.retry.max_delay_ms", 1000));
+    }
+
+    private static int intValue(Map<?, ?> props, String key, int defaultValue) {
+        Object value = props.get(key);
+        return value == null ? defaultValue : Integer.parseInt(value.toString().trim());
+    }
+
+    public int getMaxAttempts() { return maxAttempts; }
+
+    /**
+     * Indica si l'error (o alguna de les seves causes) és un bloqueig
+     * transitori de SQLite que val la pena reintentar.
+     */
+    public boolean isTransient(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof LockAcquisitionException) return true;
+            if (t instanceof SQLException sql) {
+                // Els codis estesos (ex: SQLITE_BUSY_SNAPSHOT) porten el codi base al byte baix
+                int code = sql.getErrorCode() & 0xFF;
+                if (code == SQLITE_BUSY || code == SQLITE_LOCKED) return true;
+            }
+            if (t.getCause() == t) break;
+        }
+        return false;
+    }
+
+    /**
+     * Indica si, després de fallar l'intent número "attempt" (començant per 1)
+     * amb aquest error, s'ha de tornar a provar.
+     */
+    public boolean shouldRetry(int attempt, Throwable error) {
+        return attempt < maxAttempts && isTransient(error);
+    }
+
+    /**
+     * Espera abans del següent intent: min(maxDelay, base·2^(attempt-1)),
+     * amb "equal jitter" (entre la meitat i el total d'aquest valor).
+     */
+    public long backoffMillis(int attempt) {
+        long exp = baseDelayMillis << Math.min(attempt - 1, 30);
+        long delay = Math.min(maxDelayMillis, exp);
+        if (delay <= 0) return 0;
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(delay - half + 1);
+    }
+}
@@ -0,0 +1,18 @@
+package com.project.bulk;
+
+/**
+ * Progrés d'una importació o exportació massiva: files processades i
+ * temps transcorregut des de l'inici.
+ */
+public record BulkProgress(long rows, long elapsedNanos) {
+
+    public double rowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rows * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d files en %.1f s (%.0f files/s)", 
+            rows, elapsedNanos / 1_000_000_000.0, rowsPerSecond());
+    }
+}
@@ -0,0 +1,13 @@
+package com.project.bulk;
+
+/**
+ * Fila d'entrada/sortida de la càrrega massiva: un Item i el Cart al qual pertany.
+ *
+ * CLAU NATURAL: El Cart s'identifica pel seu "type", no per l'ID (que és
+ * diferent a cada base de dades). En importar, tots els registres amb el
+ * mateix cartType van al mateix Cart.
+ * - cartType null: Item sense Cart
+ * - itemName null: només el Cart (un Cart sense Items)
+ */
+public record ItemRecord(String cartType, String itemName) {
+}
@@ -0,0 +1,231 @@
+package com.project.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+
+import org.hibernate.Hibernate;
+
+import com.project.Cart;
+import com.project.Item;
+
+/**
+ * Codificació binària compacta i versionada de Cart i Item.
+ *
+ * PER QUÈ NO SERIALIZABLE: La serialització per defecte de Java escriu la
+ * descripció completa de cada classe (noms, camps, tipus) i segueix totes
+ * les referències: serialitzar un Item arrossega el seu Cart, i el Cart
+ * tots els seus Items (Item.cart → Cart.items → ...).
+ *
+ * FORMAT: Només les dades, sense noms de classe ni de camp.
+ * - 1 byte de tipus ('C' o 'I') i 1 byte de versió
+ * - Enters en VARINT (7 bits per byte): un ID petit ocupa 1-3 bytes, no 8
+ * - Textos en UTF-8 amb la longitud davant (0 = null)
+ * - Les relacions s'escriuen com a IDs (claus foranes), sense recórrer el graf:
+ *   Item → cartId (0 = sense Cart); Cart → IDs dels Items ordenats i
+ *   codificats com a diferències (deltes petites = menys bytes)
+ *
+ * En descodificar, les entitats relacionades són referències amb només
+ * l'ID (com session.getReference()): un Item porta un Cart amb el cartId
+ * i un Cart porta Items amb l'itemId.
+ */
+public final class EntityCodec {
+
+    public static final int VERSION = 1;
+    private static final byte CART = 'C';
+    private static final byte ITEM = 'I';
+
+    // Marca de la col·lecció Cart.items: lazy sense carregar o carregada
+    private static final int ITEMS_NOT_LOADED = 0;
+    private static final int ITEMS_LOADED = 1;
+
+    private EntityCodec() {}
+
+    // ============================================================
+    // ITEM
+    // ============================================================
+
+    public static byte[] encode(Item item) {
+        Output out = new Output(16 + length(item.getName()));
+        out.writeByte(ITEM);
+        out.writeByte(VERSION);
+        out.writeVarLong(item.getItemId());
+        out.writeString(item.getName());
+        out.writeVarLong(item.getCart() == null ? 0 : item.getCart().getCartId());
+        return out.toByteArray();
+    }
+
+    public static Item decodeItem(byte[] bytes) {
+        Input in = new Input(bytes, ITEM);
+        Item item = new Item();
+        item.setItemId(in.readVarLong());
+        item.setName(in.readString());
+        long cartId = in.readVarLong();
+        if (cartId != 0) {
+            Cart cart = new Cart();
+            cart.setCartId(cartId);
+            item.setCart(cart);
+        }
+        return item;
+    }
+
+    // ============================================================
+    // CART
+    // ============================================================
+
+    public static byte[] encode(Cart cart) {
+        Set<Item> items = cart.getItems();
+        boolean loaded = items != null && Hibernate.isInitialized(items);
+        int count = loaded ? items.size() : 0;
+
+        Output out = new Output(16 + length(cart.getType()) + count * 3);
+        out.writeByte(CART);
+        out.writeByte(VERSION);
+        out.writeVarLong(cart.getCartId());
+        out.writeString(cart.getType());
+        if (!loaded) {
+            out.writeByte(ITEMS_NOT_LOADED);
+            return out.toByteArray();
+        }
+
+        long[] ids = new long[count];
+        int i = 0;
+        for (Item item : items) {
+            ids[i++] = item.getItemId();
+        }
+        Arrays.sort(ids);
+        out.writeByte(ITEMS_LOADED);
+        out.writeVarLong(count);
+        long previous = 0;
+        for (long id : ids) {
+            out.writeVarLong(id - previous);
+            previous = id;
+        }
+        return out.toByteArray();
+    }
+
+    public static Cart decodeCart(byte[] bytes) {
+        Input in = new Input(bytes, CART);
+        Cart cart = new Cart();
+        cart.setCartId(in.readVarLong());
+        cart.setType(in.readString());
+        if (in.readByte() == ITEMS_LOADED) {
+            long count = in.readVarLong();
+            long id = 0;
+            for (long i = 0; i < count; i++) {
+                id += in.readVarLong();
+                Item item = new Item();
+                item.setItemId(id);
+                cart.addItem(item);
+            }
+        }
+        return cart;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length() * 3;
+    }
+
+    // ============================================================
+    // BUFFERS
+    // ============================================================
+
+    /**
+     * Buffer d'escriptura que creix quan cal (com ByteArrayOutputStream,
+     * però sense sincronització ni còpies per cada byte).
+     */
+    private static final class Output {
+        private byte[] buf;
+        private int pos;
+
+        Output(int capacity) {
+            buf = new byte[capacity];
+        }
+
+        private void ensure(int extra) {
+            if (pos + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + extra));
+            }
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            buf[pos++] = (byte) value;
+        }
+
+        /**
+         * VARINT: 7 bits de dades per byte; el bit alt indica si en venen més.
+         */
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[pos++] = (byte) value;
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, pos, bytes.length);
+            pos += bytes.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+    }
+
+    private static final class Input {
+        private final byte[] buf;
+        private int pos;
+
+        Input(byte[] buf, byte expectedType) {
+            this.buf = buf;
+            if (buf.length < 2 || buf[0] != expectedType) {
+                throw new IllegalArgumentException("Les dades no són un " + (expectedType == CART ? "Cart" : "Item"));
+            }
+            if (buf[1] < 1 || buf[1] > VERSION) {
+                throw new IllegalArgumentException("Versió de format no suportada: " + buf[1]);
+            }
+            pos = 2;
+        }
+
+        int readByte() {
+            check(1);
+            return buf[pos++];
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IllegalArgumentException("VARINT massa llarg");
+        }
+
+        String readString() {
+            long length = readVarLong();
+            if (length == 0) return null;
+            int size = (int) (length - 1);
+            check(size);
+            String value = new String(buf, pos, size, StandardCharsets.UTF_8);
+            pos += size;
+            return value;
+        }
+
+        private void check(int size) {
+            if (pos + size > buf.length) {
+                throw new IllegalArgumentException("Dades truncades");
+            }
+        }
+    }
+}
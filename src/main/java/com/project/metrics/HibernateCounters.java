@@ -0,0 +1,42 @@
+package com.project.metrics;
+
+import org.hibernate.stat.Statistics;
+
+/**
+ * Comptadors d'Hibernate que interessen per operació: sentències JDBC,
+ * sessions, flushes, errades de la cache de segon nivell, entitats carregades
+ * i encerts/errades de la cache de plans de consulta (HQL ja interpretat).
+ *
+ * Les Statistics d'Hibernate són globals de la SessionFactory. Per obtenir
+ * el cost d'UNA operació es llegeixen abans i després i es resten (delta).
+ * Amb operacions concurrents, el delta pot incloure feina d'altres fils.
+ */
+public record HibernateCounters(long statements, long sessions, long flushes,
+                                long cacheMisses, long entityLoads,
+                                long planCacheHits, long planCacheMisses) {
+
+    public static final HibernateCounters ZERO = new HibernateCounters(0, 0, 0, 0, 0, 0, 0);
+
+    public static HibernateCounters read(Statistics stats) {
+        if (stats == null || !stats.isStatisticsEnabled()) return ZERO;
+        return new HibernateCounters(
+            stats.getPrepareStatementCount(),
+            stats.getSessionOpenCount(),
+            stats.getFlushCount(),
+            stats.getSecondLevelCacheMissCount(),
+            stats.getEntityLoadCount(),
+            stats.getQueryPlanCacheHitCount(),
+            stats.getQueryPlanCacheMissCount());
+    }
+
+    public HibernateCounters minus(HibernateCounters other) {
+        return new HibernateCounters(
+            statements - other.statements,
+            sessions - other.sessions,
+            flushes - other.flushes,
+            cacheMisses - other.cacheMisses,
+            entityLoads - other.entityLoads,
+            planCacheHits - other.planCacheHits,
+            planCacheMisses - other.planCacheMisses);
+    }
+}
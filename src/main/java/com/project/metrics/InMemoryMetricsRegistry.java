@@ -0,0 +1,44 @@
+package com.project.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registre de mètriques en memòria. snapshot() permet consultar-les des
+ * dels tests o imprimir-les per diagnòstic.
+ */
+public class InMemoryMetricsRegistry implements MetricsRegistry {
+
+    private final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+    @Override
+    public void record(String operation, long nanos, boolean success, HibernateCounters counters) {
+        operations.computeIfAbsent(operation, this::create).record(nanos, success, counters);
+    }
+
+    @Override
+    public void recordRetry(String operation) {
+        operations.computeIfAbsent(operation, this::create).recordRetry();
+    }
+
+    /**
+     * Crea els acumuladors la primera vegada que apareix una operació.
+     * Les subclasses ho poden aprofitar per publicar-los (ex: JMX).
+     */
+    protected OperationMetrics create(String operation) {
+        return new OperationMetrics();
+    }
+
+    @Override
+    public Map<String, OperationSnapshot> snapshot() {
+        Map<String, OperationSnapshot> result = new TreeMap<>();
+        operations.forEach((name, metrics) -> result.put(name, metrics.snapshot()));
+        return result;
+    }
+
+    @Override
+    public void reset() {
+        operations.values().forEach(OperationMetrics::reset);
+    }
+}
@@ -0,0 +1,35 @@
+package com.project.metrics;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registre de mètriques que, a més de guardar-les en memòria, publica cada
+ * operació com un MXBean a la plataforma JMX:
+ *   com.project:type=Manager,operation=NOM
+ */
+public class JmxMetricsRegistry extends InMemoryMetricsRegistry {
+
+    private static final String DOMAIN = "com.project";
+
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+    @Override
+    protected OperationMetrics create(String operation) {
+        OperationMetrics metrics = super.create(operation);
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":type=Manager,operation=" + ObjectName.quote(operation));
+            if (server.isRegistered(name)) server.unregisterMBean(name);
+            server.registerMBean(metrics, name);
+        } catch (InstanceAlreadyExistsException ignored) {
+            // Registrat per un altre fil entre la comprovació i el registre
+        } catch (JMException e) {
+            System.err.println("No s'ha pogut registrar la mètrica JMX " + operation + ": " + e);
+        }
+        return metrics;
+    }
+}
@@ -0,0 +1,41 @@
+package com.project.metrics;
+
+import java.util.Map;
+
+/**
+ * Registre de mètriques per operació del Manager (estil Micrometer):
+ * un temporitzador (durada) i uns comptadors (errors, sentències, etc.)
+ * per cada nom d'operació ("addCart", "updateCart"...).
+ *
+ * Implementacions:
+ * - InMemoryMetricsRegistry: només en memòria, per tests i diagnòstic
+ * - JmxMetricsRegistry: a més, publica cada operació com un MBean (per defecte)
+ */
+public interface MetricsRegistry {
+
+    /**
+     * Registra una execució d'una operació.
+     *
+     * @param operation nom de l'operació
+     * @param nanos durada total en nanosegons
+     * @param success false si l'operació ha acabat amb excepció
+     * @param counters cost en comptadors d'Hibernate d'aquesta execució
+     */
+    void record(String operation, long nanos, boolean success, HibernateCounters counters);
+
+    /**
+     * Registra un reintent d'una operació (ex: després d'un SQLITE_BUSY).
+     * Permet vigilar la contenció de bloquejos per operació.
+     */
+    void recordRetry(String operation);
+
+    /**
+     * Retorna una còpia immutable de les mètriques actuals, per operació.
+     */
+    Map<String, OperationSnapshot> snapshot();
+
+    /**
+     * Posa a zero totes les mètriques.
+     */
+    void reset();
+}
@@ -0,0 +1,79 @@
+package com.project.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Acumuladors d'una operació. LONGADDER: comptador optimitzat per moltes
+ * escriptures concurrents (cada fil suma en una cel·la pròpia i només es
+ * combinen en llegir), més barat que un AtomicLong compartit.
+ */
+class OperationMetrics implements OperationMetricsMXBean {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder sessions = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder entityLoads = new LongAdder();
+    private final LongAdder planCacheHits = new LongAdder();
+    private final LongAdder planCacheMisses = new LongAdder();
+
+    void record(long nanos, boolean success, HibernateCounters counters) {
+        count.increment();
+        if (!success) errors.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        statements.add(counters.statements());
+        sessions.add(counters.sessions());
+        flushes.add(counters.flushes());
+        cacheMisses.add(counters.cacheMisses());
+        entityLoads.add(counters.entityLoads());
+        planCacheHits.add(counters.planCacheHits());
+        planCacheMisses.add(counters.planCacheMisses());
+    }
+
+    void recordRetry() {
+        retries.increment();
+    }
+
+    void reset() {
+        count.reset();
+        errors.reset();
+        retries.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+        statements.reset();
+        sessions.reset();
+        flushes.reset();
+        cacheMisses.reset();
+        entityLoads.reset();
+        planCacheHits.reset();
+        planCacheMisses.reset();
+    }
+
+    OperationSnapshot snapshot() {
+        return new OperationSnapshot(count.sum(), errors.sum(), retries.sum(), totalNanos.sum(), maxNanos.get(),
+            statements.sum(), sessions.sum(), flushes.sum(), cacheMisses.sum(), entityLoads.sum(),
+            planCacheHits.sum(), planCacheMisses.sum());
+    }
+
+    @Override public long getCount() { return count.sum(); }
+    @Override public long getErrorCount() { return errors.sum(); }
+    @Override public long getRetryCount() { return retries.sum(); }
+    @Override public double getMeanTimeMillis() { return snapshot().meanMillis(); }
+    @Override public double getMaxTimeMillis() { return snapshot().maxMillis(); }
+    @Override public long getStatementCount() { return statements.sum(); }
+    @Override public double getStatementsPerCall() { return snapshot().statementsPerCall(); }
+    @Override public long getSessionCount() { return sessions.sum(); }
+    @Override public long getFlushCount() { return flushes.sum(); }
+    @Override public long getSecondLevelCacheMissCount() { return cacheMisses.sum(); }
+    @Override public long getEntityLoadCount() { return entityLoads.sum(); }
+    @Override public long getQueryPlanCacheHitCount() { return planCacheHits.sum(); }
+    @Override public long getQueryPlanCacheMissCount() { return planCacheMisses.sum(); }
+    @Override public double getQueryPlanCacheHitRate() { return snapshot().planCacheHitRate(); }
+}
@@ -0,0 +1,22 @@
+package com.project.metrics;
+
+/**
+ * Vista JMX de les mètriques d'una operació (visible amb JConsole o VisualVM
+ * com a com.project:type=Manager,operation=NOM).
+ */
+public interface OperationMetricsMXBean {
+    long getCount();
+    long getErrorCount();
+    long getRetryCount();
+    double getMeanTimeMillis();
+    double getMaxTimeMillis();
+    long getStatementCount();
+    double getStatementsPerCall();
+    long getSessionCount();
+    long getFlushCount();
+    long getSecondLevelCacheMissCount();
+    long getEntityLoadCount();
+    long getQueryPlanCacheHitCount();
+    long getQueryPlanCacheMissCount();
+    double getQueryPlanCacheHitRate();
+}
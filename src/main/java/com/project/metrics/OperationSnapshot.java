@@ -0,0 +1,36 @@
+package com.project.metrics;
+
+/**
+ * Fotografia immutable de les mètriques d'una operació.
+ */
+public record OperationSnapshot(long count, long errors, long retries, long totalNanos, long maxNanos,
+                                long statements, long sessions, long flushes,
+                                long cacheMisses, long entityLoads,
+                                long planCacheHits, long planCacheMisses) {
+
+    public double meanMillis() {
+        return count == 0 ? 0 : totalNanos / 1_000_000.0 / count;
+    }
+
+    public double maxMillis() {
+        return maxNanos / 1_000_000.0;
+    }
+
+    /**
+     * Mitjana de sentències JDBC per execució. Un valor que creix amb la
+     * mida de les dades sol indicar un problema N+1.
+     */
+    public double statementsPerCall() {
+        return count == 0 ? 0 : (double) statements / count;
+    }
+
+    /**
+     * Proporció de consultes que han reutilitzat un pla ja interpretat
+     * (0..1). Un valor baix indica consultes construïdes concatenant valors
+     * en lloc de fer servir paràmetres.
+     */
+    public double planCacheHitRate() {
+        long total = planCacheHits + planCacheMisses;
+        return total == 0 ? 0 : (double) planCacheHits / total;
+    }
+}
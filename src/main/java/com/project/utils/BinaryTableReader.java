@@ -0,0 +1,77 @@
+package com.project.utils;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Lector del format binari de TableDumper (vegeu TableDumper.BinaryWriter).
+ * Llegeix la capçalera en crear-se i després retorna les files una a una
+ * amb next() (null al final), sense carregar tot el fitxer en memòria.
+ */
+class BinaryTableReader implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final DataInputStream in;
+    private final String[] names;
+    private final char[] types;
+
+    BinaryTableReader(InputStream input) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(input, BUFFER_SIZE));
+        if (in.readInt() != TableDumper.BINARY_MAGIC) {
+            throw new IOException("No és un fitxer de TableDumper");
+        }
+        int version = in.readByte();
+        if (version != TableDumper.BINARY_VERSION) {
+            throw new IOException("Versió de format no suportada: " + version);
+        }
+        int columns = in.readInt();
+        names = new String[columns];
+        types = new char[columns];
+        for (int i = 0; i < columns; i++) {
+            names[i] = readUtf8();
+            types[i] = (char) in.readByte();
+        }
+    }
+
+    String[] columnNames() {
+        return names;
+    }
+
+    /**
+     * Retorna la fila següent (Long, Double, String, byte[] o null per
+     * columna), o null si ja no n'hi ha més.
+     */
+    Object[] next() throws IOException {
+        if (in.readByte() == 0) return null;
+        Object[] row = new Object[names.length];
+        for (int i = 0; i < row.length; i++) {
+            if (in.readByte() == 0) continue;
+            row[i] = switch (types[i]) {
+                case 'L' -> in.readLong();
+                case 'D' -> in.readDouble();
+                case 'B' -> readBytes();
+                default -> readUtf8();
+            };
+        }
+        return row;
+    }
+
+    private String readUtf8() throws IOException {
+        return new String(readBytes(), StandardCharsets.UTF_8);
+    }
+
+    private byte[] readBytes() throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -1,72 +1,90 @@
 package com.project.utils;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
 import java.sql.Connection;
-import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.List;
 
 /*
- * Aquest exemple mostra les 
+ * Aquest exemple bolca les 
  * dades de SQLite quan hibernate
  * ja ha generat les taules
+ *
+ * Ús: MainSQLite [csv|jsonl|binary] [directori de sortida] [fetchSize]
+ * - Sense directori, les taules s'escriuen a la sortida estàndard
+ * - Amb directori, cada taula va al seu fitxer (Cart.csv, Item.csv...)
+ * - Les taules internes de SQLite (sqlite_*) no es bolquen
+ * - La BBDD és data/database.db, o la indicada amb -Dsqlite.database=<fitxer>
+ *
+ * Còpia i restauració en paral·lel (vegeu ParallelSnapshot):
+ *   MainSQLite snapshot <directori> [fils]
+ *   MainSQLite restore <directori> <fitxer .db de destí> [fils]
  */
 
 public class MainSQLite {
 
-    public static void main(String[] args) throws SQLException {
+    public static void main(String[] args) throws SQLException, IOException {
         String basePath = System.getProperty("user.dir") + "/data/";
-        String filePath = basePath + "database.db";
-        ResultSet rs = null;
-    
+        String filePath = System.getProperty("sqlite.database", basePath + "database.db");
+
+        if (args.length > 0 && (args[0].equals("snapshot") || args[0].equals("restore"))) {
+            int required = args[0].equals("restore") ? 3 : 2;
+            if (args.length < required) {
+                System.err.println("Ús: MainSQLite snapshot <directori> [fils]");
+                System.err.println("    MainSQLite restore <directori> <fitxer .db de destí> [fils]");
+                return;
+            }
+            snapshot(args, filePath);
+            return;
+        }
+
+        TableDumper.Format format = args.length > 0 
+            ? TableDumper.Format.valueOf(args[0].toUpperCase()) 
+            : TableDumper.Format.CSV;
+        Path outputDir = args.length > 1 ? Path.of(args[1]) : null;
+        int fetchSize = args.length > 2 ? Integer.parseInt(args[2]) : TableDumper.DEFAULT_FETCH_SIZE;
+
         // Connectar (crea la BBDD si no existeix)
         Connection conn = UtilsSQLite.connect(filePath);
     
         // Llistar les taules
         ArrayList<String> taules = UtilsSQLite.listTables(conn);
-        System.out.println("Taules: " + taules);
-    
-        for (String nomTaula : taules) {
-            // Fer una única consulta per taula
-            rs = UtilsSQLite.querySelect(conn, "SELECT * FROM " + nomTaula + ";");
-            ResultSetMetaData rsmd = rs.getMetaData();
-    
-            // Mostrar les columnes de la taula
-            System.out.println("Columnes de la taula " + nomTaula + ":");
-            for (int cntCol = 1; cntCol <= rsmd.getColumnCount(); cntCol++) {
-                String label = rsmd.getColumnLabel(cntCol);
-                String name = rsmd.getColumnName(cntCol);
-                int type = rsmd.getColumnType(cntCol);
-                System.out.println("    " + label + ", " + name + ", " + type);
-            }
-    
-            // Mostrar la informació de la taula
-            System.out.println("Continguts de la taula " + nomTaula + ":");
-            while (rs.next()) {
-                StringBuilder txt = new StringBuilder();
-                for (int cntCol = 1; cntCol <= rsmd.getColumnCount(); cntCol++) {
-                    if (cntCol == 1) {
-                        txt.append("    ");
-                    } else {
-                        txt.append(", ");
-                    }
-                    
-                    String name = rsmd.getColumnName(cntCol);
-                    switch (rsmd.getColumnType(cntCol)) {
-                        case java.sql.Types.INTEGER -> txt.append(rs.getInt(name));
-                        case java.sql.Types.VARCHAR -> txt.append(rs.getString(name));
-                        case java.sql.Types.REAL -> txt.append(rs.getFloat(name));
-                        case java.sql.Types.BIGINT -> txt.append(rs.getLong(name));
-                        case java.sql.Types.BOOLEAN -> txt.append(rs.getBoolean(name));
-                        default -> txt.append("???");
-                    }
-                }
-                System.out.println(txt);
+        taules.removeIf(taula -> taula.startsWith("sqlite_"));
+        System.err.println("Taules: " + taules);
+
+        // Bolcar cada taula en streaming i informar de les files/s
+        TableDumper dumper = new TableDumper(conn, format, fetchSize);
+        List<TableDumper.Stats> informes = new ArrayList<>();
+        if (outputDir != null) {
+            informes.addAll(dumper.dumpAll(taules, outputDir));
+        } else {
+            OutputStream out = System.out;
+            for (String nomTaula : taules) {
+                informes.add(dumper.dump(nomTaula, out));
             }
-            System.out.println(); // Línia en blanc entre taules
         }
+        informes.forEach(System.err::println);
     
         // Desconnectar
         UtilsSQLite.disconnect(conn);
     }
-}
\ No newline at end of file
+
+    private static void snapshot(String[] args, String filePath) throws SQLException, IOException {
+        Path dir = Path.of(args[1]);
+        boolean restore = args[0].equals("restore");
+        int threadsArg = restore ? 3 : 2;
+        int threads = args.length > threadsArg 
+            ? Integer.parseInt(args[threadsArg]) 
+            : Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        List<TableDumper.Stats> informes = restore
+            ? ParallelSnapshot.importInto(args[2], dir, threads)
+            : ParallelSnapshot.export(filePath, dir, threads, ParallelSnapshot.DEFAULT_PARTITION_ROWS);
+        informes.forEach(System.err::println);
+        System.err.printf("%s amb %d fils: %.2f s%n", args[0], threads, (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,254 @@
+package com.project.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Còpia (export) i restauració (import) en paral·lel d'una base de dades
+ * SQLite, en el format binari de TableDumper.
+ *
+ * PARTICIONS: Cada taula es divideix en rangs de rowid (la clau primària
+ * INTEGER de SQLite) de com a molt "partitionRows" files. Cada partició
+ * va al seu fitxer "<taula>.<n>.bin". L'esquema (CREATE TABLE/INDEX) es
+ * desa a "_schema.bin" amb el mateix format.
+ *
+ * EXPORT: Un pool fix de "threads" fils; cada partició es llegeix amb la
+ * seva pròpia connexió. En mode WAL, SQLite permet molts lectors alhora,
+ * així que les lectures escalen amb els nuclis. Cada connexió veu l'estat
+ * confirmat en començar la seva partició: per tenir una còpia coherent, no
+ * hi ha d'haver escriptures durant l'export.
+ *
+ * IMPORT: SQLite només admet UN escriptor alhora. Els fils del pool llegeixen
+ * i descodifiquen les particions en paral·lel i una sola connexió les
+ * escriu, cada partició en UNA transacció amb un INSERT preparat en lot.
+ * Els índexs es creen al final, un cop carregades les dades (és més ràpid
+ * que mantenir-los fila a fila). La base de dades de destí ha d'estar buida.
+ */
+public final class ParallelSnapshot {
+
+    public static final int DEFAULT_PARTITION_ROWS = 100_000;
+    static final String SCHEMA_FILE = "_schema.bin";
+    private static final String EXTENSION = ".bin";
+
+    private ParallelSnapshot() {}
+
+    /**
+     * Rang de rowids (fromRowid, toRowid] d'una taula que va a un fitxer.
+     */
+    record Partition(String table, int index, long fromRowid, long toRowid) {
+        String fileName() {
+            return String.format("%s.%04d%s", table, index, EXTENSION);
+        }
+    }
+
+    // ============================================================
+    // EXPORT
+    // ============================================================
+
+    public static List<TableDumper.Stats> export(String dbPath, Path dir, int threads, int partitionRows) 
+            throws SQLException, IOException {
+        Files.createDirectories(dir);
+        List<Partition> partitions = new ArrayList<>();
+        try (Connection conn = open(dbPath)) {
+            try (OutputStream out = Files.newOutputStream(dir.resolve(SCHEMA_FILE))) {
+                new TableDumper(conn, TableDumper.Format.BINARY).dump("_schema", 
+                    "SELECT type, name, sql FROM sqlite_schema " +
+                    "WHERE sql IS NOT NULL AND name NOT LIKE 'sqlite_%' ORDER BY rowid", out);
+            }
+            for (String table : UtilsSQLite.listTables(conn)) {
+                if (!table.startsWith("sqlite_")) {
+                    partitions.addAll(partition(conn, table, partitionRows));
+                }
+            }
+        }
+
+        List<Callable<TableDumper.Stats>> tasks = new ArrayList<>();
+        for (Partition partition : partitions) {
+            tasks.add(() -> {
+                try (Connection conn = open(dbPath);
+                     OutputStream out = Files.newOutputStream(dir.resolve(partition.fileName()))) {
+                    return new TableDumper(conn, TableDumper.Format.BINARY).dump(
+                        partition.table() + "#" + partition.index(),
+                        "SELECT * FROM \"" + partition.table() + "\" WHERE rowid > " + partition.fromRowid() 
+                            + " AND rowid <= " + partition.toRowid() + " ORDER BY rowid",
+                        out);
+                }
+            });
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<TableDumper.Stats> stats = new ArrayList<>();
+            for (Future<TableDumper.Stats> result : pool.invokeAll(tasks)) {
+                stats.add(result.get());
+            }
+            return stats;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Export interromput", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Reparteix el rang [min(rowid), max(rowid)] en trossos iguals perquè
+     * cada un tingui, de mitjana, com a molt "partitionRows" files.
+     */
+    static List<Partition> partition(Connection conn, String table, int partitionRows) throws SQLException {
+        long min;
+        long max;
+        long count;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT min(rowid), max(rowid), count(*) FROM \"" + table + "\"")) {
+            rs.next();
+            min = rs.getLong(1);
+            max = rs.getLong(2);
+            count = rs.getLong(3);
+        }
+        int parts = (int) Math.max(1, (count + partitionRows - 1) / partitionRows);
+        long width = Math.max(1, (max - min + parts) / parts);
+        List<Partition> partitions = new ArrayList<>(parts);
+        long from = min - 1;
+        for (int i = 0; i < parts; i++) {
+            long to = (i == parts - 1) ? Long.MAX_VALUE : from + width;
+            partitions.add(new Partition(table, i, from, to));
+            from = to;
+        }
+        return partitions;
+    }
+
+    // ============================================================
+    // IMPORT
+    // ============================================================
+
+    /**
+     * Partició ja llegida del fitxer, a punt per escriure.
+     */
+    private record DecodedPartition(String table, String[] columns, List<Object[]> rows, long decodeNanos) {}
+
+    public static List<TableDumper.Stats> importInto(String dbPath, Path dir, int threads) 
+            throws SQLException, IOException {
+        List<Object[]> schema = readAll(dir.resolve(SCHEMA_FILE)).rows();
+        List<Path> files = new ArrayList<>();
+        try (var listing = Files.list(dir)) {
+            listing.filter(f -> f.getFileName().toString().endsWith(EXTENSION))
+                .filter(f -> !f.getFileName().toString().equals(SCHEMA_FILE))
+                .sorted()
+                .forEach(files::add);
+        }
+
+        // Com a molt 2·threads particions descodificades en memòria alhora
+        Semaphore inFlight = new Semaphore(threads * 2);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CompletionService<DecodedPartition> decoded = new ExecutorCompletionService<>(pool);
+        for (Path file : files) {
+            decoded.submit(() -> {
+                inFlight.acquire();
+                return readAll(file);
+            });
+        }
+
+        List<TableDumper.Stats> stats = new ArrayList<>();
+        try (Connection conn = open(dbPath); StatementCache statements = new StatementCache(conn)) {
+            createSchema(conn, schema, "table");
+            conn.setAutoCommit(false);
+            for (int i = 0; i < files.size(); i++) {
+                DecodedPartition partition = decoded.take().get();
+                try {
+                    long start = System.nanoTime();
+                    statements.batch(insertSql(partition.table(), partition.columns()), partition.rows());
+                    conn.commit();
+                    stats.add(new TableDumper.Stats(partition.table(), partition.rows().size(), 
+                        partition.decodeNanos() + System.nanoTime() - start));
+                } finally {
+                    inFlight.release();
+                }
+            }
+            conn.setAutoCommit(true);
+            createSchema(conn, schema, "index");
+            return stats;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interromput", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static DecodedPartition readAll(Path file) throws IOException {
+        long start = System.nanoTime();
+        String name = file.getFileName().toString();
+        String table = name.substring(0, name.indexOf('.'));
+        try (InputStream in = Files.newInputStream(file); BinaryTableReader reader = new BinaryTableReader(in)) {
+            List<Object[]> rows = new ArrayList<>();
+            for (Object[] row = reader.next(); row != null; row = reader.next()) {
+                rows.add(row);
+            }
+            return new DecodedPartition(table, reader.columnNames(), rows, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Executa les sentències CREATE de l'esquema del tipus indicat ("table"
+     * o "index") dels objectes que encara no existeixen al destí.
+     */
+    private static void createSchema(Connection conn, List<Object[]> schema, String type) throws SQLException {
+        try (StatementCache statements = new StatementCache(conn); Statement ddl = conn.createStatement()) {
+            for (Object[] object : schema) {
+                if (!type.equals(object[0])) continue;
+                boolean exists = !statements.query("SELECT 1 FROM sqlite_schema WHERE name = ?", 
+                    rs -> rs.getInt(1), object[1]).isEmpty();
+                if (!exists) {
+                    ddl.executeUpdate((String) object[2]);
+                }
+            }
+        }
+    }
+
+    private static String insertSql(String table, String[] columns) {
+        StringBuilder sql = new StringBuilder("INSERT INTO \"").append(table).append("\" (");
+        for (int i = 0; i < columns.length; i++) {
+            sql.append(i == 0 ? "\"" : ", \"").append(columns[i]).append('"');
+        }
+        sql.append(") VALUES (");
+        sql.append(String.join(", ", Collections.nCopies(columns.length, "?")));
+        return sql.append(')').toString();
+    }
+
+    /**
+     * Connexió amb el perfil de PRAGMAs (com UtilsSQLite.connect, sense missatges).
+     */
+    private static Connection open(String dbPath) throws SQLException {
+        return DriverManager.getConnection("jdbc:sqlite:" + dbPath, SQLitePragmas.load());
+    }
+
+    private static IOException unwrap(ExecutionException e) throws SQLException {
+        Throwable cause = e.getCause();
+        if (cause instanceof SQLException sql) throw sql;
+        if (cause instanceof IOException io) return io;
+        return new IOException(cause);
+    }
+}
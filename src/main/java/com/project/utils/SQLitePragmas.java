@@ -0,0 +1,46 @@
+package com.project.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Perfil de PRAGMAs de SQLite configurable des de hibernate.properties.
+ *
+ * Les propietats amb prefix "sqlite.pragma." (ex: sqlite.pragma.journal_mode=WAL)
+ * es tradueixen a propietats del driver sqlite-jdbc (journal_mode=WAL), que
+ * les aplica en obrir CADA connexió. Així el mateix perfil s'aplica a les
+ * connexions del pool d'Hibernate i a les de UtilsSQLite.connect().
+ */
+public final class SQLitePragmas {
+
+    public static final String PREFIX = "sqlite.pragma.";
+
+    private SQLitePragmas() {}
+
+    /**
+     * Extreu les propietats "sqlite.pragma.*" i en retorna una còpia sense
+     * el prefix, a punt per passar al driver (DriverManager.getConnection).
+     */
+    public static Properties fromProperties(Properties source) {
+        Properties pragmas = new Properties();
+        for (String key : source.stringPropertyNames()) {
+            if (key.startsWith(PREFIX)) {
+                pragmas.setProperty(key.substring(PREFIX.length()), source.getProperty(key).trim());
+            }
+        }
+        return pragmas;
+    }
+
+    /**
+     * Llegeix el perfil del fitxer hibernate.properties del classpath.
+     * Si no existeix, retorna un perfil buit (valors per defecte de SQLite).
+     */
+    public static Properties load() {
+        Properties source = new Properties();
+        try (InputStream in = SQLitePragmas.class.getClassLoader().getResourceAsStream("hibernate.properties")) {
+            if (in != null) source.load(in);
+        } catch (IOException e) { System.err.println(e.getMessage()); }
+        return fromProperties(source);
+    }
+}
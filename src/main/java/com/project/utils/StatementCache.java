@@ -0,0 +1,148 @@
+package com.project.utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache LRU de PreparedStatements d'UNA connexió JDBC.
+ *
+ * PREPAREDSTATEMENT: SQLite compila cada sentència SQL a un programa
+ * intern (sqlite3_prepare). Amb Statement + SQL concatenat, cada crida es
+ * torna a compilar; amb una PreparedStatement cachejada i paràmetres (?),
+ * es compila UN cop i es reutilitza canviant només els valors. Els
+ * paràmetres també eviten la injecció de SQL.
+ *
+ * LRU (Least Recently Used): Es guarden com a molt "capacity" sentències.
+ * Quan se n'afegeix una de més, es tanca la que fa més temps que no s'usa
+ * (LinkedHashMap amb accessOrder=true i removeEldestEntry).
+ *
+ * CICLE DE VIDA: Les sentències cachejades es tanquen en tancar la cache
+ * (try-with-resources); els ResultSet es tanquen dins de cada mètode.
+ * No és thread-safe, igual que la connexió que embolcalla.
+ */
+public class StatementCache implements AutoCloseable {
+
+    /**
+     * Converteix la fila actual d'un ResultSet en un objecte.
+     */
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private final Connection conn;
+    private final LinkedHashMap<String, PreparedStatement> statements;
+    private long hits;
+    private long misses;
+
+    public StatementCache(Connection conn) {
+        this(conn, DEFAULT_CAPACITY);
+    }
+
+    public StatementCache(Connection conn, int capacity) {
+        this.conn = conn;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= capacity) return false;
+                closeQuietly(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Retorna la PreparedStatement de "sql", compilant-la només si no és a la cache.
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement stmt = statements.get(sql);
+        if (stmt != null && !stmt.isClosed()) {
+            hits++;
+            return stmt;
+        }
+        misses++;
+        stmt = conn.prepareStatement(sql);
+        statements.put(sql, stmt);
+        return stmt;
+    }
+
+    /**
+     * INSERT/UPDATE/DELETE amb paràmetres. Retorna les files afectades.
+     */
+    public int update(String sql, Object... params) throws SQLException {
+        PreparedStatement stmt = prepare(sql);
+        bind(stmt, params);
+        return stmt.executeUpdate();
+    }
+
+    /**
+     * SELECT amb paràmetres. Cada fila es converteix amb "mapper";
+     * el ResultSet es tanca abans de retornar.
+     */
+    public <T> List<T> query(String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+        PreparedStatement stmt = prepare(sql);
+        bind(stmt, params);
+        List<T> rows = new ArrayList<>();
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                rows.add(mapper.map(rs));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * BATCH: Afegeix cada fila de paràmetres al lot (addBatch) i l'executa
+     * de cop (executeBatch). La sentència es compila un sol cop per a
+     * totes les files. Retorna les files afectades per cada element del lot.
+     */
+    public int[] batch(String sql, Iterable<Object[]> rows) throws SQLException {
+        PreparedStatement stmt = prepare(sql);
+        try {
+            for (Object[] params : rows) {
+                bind(stmt, params);
+                stmt.addBatch();
+            }
+            return stmt.executeBatch();
+        } finally {
+            stmt.clearBatch();
+        }
+    }
+
+    private static void bind(PreparedStatement stmt, Object[] params) throws SQLException {
+        stmt.clearParameters();
+        for (int i = 0; i < params.length; i++) {
+            stmt.setObject(i + 1, params[i]);
+        }
+    }
+
+    public int size() { return statements.size(); }
+    public long getHitCount() { return hits; }
+    public long getMissCount() { return misses; }
+
+    /**
+     * Tanca totes les sentències cachejades (no tanca la connexió).
+     */
+    @Override
+    public void close() {
+        for (Iterator<PreparedStatement> it = statements.values().iterator(); it.hasNext(); ) {
+            closeQuietly(it.next());
+            it.remove();
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) { System.err.println(e.getMessage()); }
+    }
+}
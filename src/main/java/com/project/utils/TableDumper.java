@@ -0,0 +1,417 @@
+package com.project.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exportació en streaming de taules SQLite a CSV, JSONL o binari.
+ *
+ * ACCÉS PER ÍNDEX: rs.getString("nom") ha de buscar la columna pel nom a
+ * cada cel·la; rs.getLong(3) hi va directament. A més, el tipus de cada
+ * columna es consulta UN cop per taula (ResultSetMetaData) i es guarda en
+ * un array de decodificadors: per cada cel·la només es crida el getter
+ * adequat i s'escriu el valor, sense switch ni cerques.
+ *
+ * STREAMING: Les files es llegeixen amb un cursor (fetchSize files per
+ * viatge) i s'escriuen a un buffer gran; mai es guarda la taula en memòria.
+ * Així el bolcat d'una base de dades gran queda limitat pel disc, no per la CPU.
+ */
+public class TableDumper {
+
+    public enum Format {
+        CSV("csv"), JSONL("jsonl"), BINARY("bin");
+
+        private final String extension;
+
+        Format(String extension) { this.extension = extension; }
+
+        public String extension() { return extension; }
+    }
+
+    /**
+     * Resultat del bolcat d'una taula: files escrites i temps emprat.
+     */
+    public record Stats(String table, long rows, long elapsedNanos) {
+
+        public double rowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rows * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d files en %.2f s (%.0f files/s)", 
+                table, rows, elapsedNanos / 1_000_000_000.0, rowsPerSecond());
+        }
+    }
+
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // Capçalera del format binari: "SQLD" + versió
+    static final int BINARY_MAGIC = 0x53514C44;
+    static final int BINARY_VERSION = 1;
+
+    private final Connection conn;
+    private final Format format;
+    private final int fetchSize;
+
+    public TableDumper(Connection conn, Format format, int fetchSize) {
+        this.conn = conn;
+        this.format = format;
+        this.fetchSize = fetchSize;
+    }
+
+    public TableDumper(Connection conn, Format format) {
+        this(conn, format, DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * Bolca totes les taules de "tables" a fitxers "<taula>.<extensió>" dins de "dir".
+     */
+    public List<Stats> dumpAll(List<String> tables, Path dir) throws SQLException, IOException {
+        Files.createDirectories(dir);
+        List<Stats> stats = new ArrayList<>();
+        for (String table : tables) {
+            try (OutputStream out = Files.newOutputStream(dir.resolve(table + "." + format.extension()))) {
+                stats.add(dump(table, out));
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Bolca una taula sencera a "out" (no el tanca, però sí que en fa flush).
+     */
+    public Stats dump(String table, OutputStream out) throws SQLException, IOException {
+        return dump(table, "SELECT * FROM \"" + table + "\"", out);
+    }
+
+    /**
+     * Bolca el resultat d'una consulta qualsevol (ex: un rang d'IDs d'una taula).
+     */
+    public Stats dump(String table, String sql, OutputStream out) throws SQLException, IOException {
+        long start = System.nanoTime();
+        long rows = 0;
+        try (Statement stmt = conn.createStatement()) {
+            stmt.setFetchSize(fetchSize);
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                ResultSetMetaData meta = rs.getMetaData();
+                int columns = meta.getColumnCount();
+                String[] names = new String[columns];
+                ColumnDecoder[] decoders = new ColumnDecoder[columns];
+                for (int i = 0; i < columns; i++) {
+                    names[i] = meta.getColumnLabel(i + 1);
+                    decoders[i] = decoderFor(meta.getColumnType(i + 1));
+                }
+
+                RowWriter writer = newWriter(out, names, decoders);
+                writer.header();
+                while (rs.next()) {
+                    writer.beginRow();
+                    for (int i = 0; i < columns; i++) {
+                        writer.beginColumn(i);
+                        decoders[i].decode(rs, i + 1, writer);
+                    }
+                    writer.endRow();
+                    rows++;
+                }
+                writer.finish();
+            }
+        }
+        return new Stats(table, rows, System.nanoTime() - start);
+    }
+
+    private RowWriter newWriter(OutputStream out, String[] names, ColumnDecoder[] decoders) {
+        return switch (format) {
+            case CSV -> new CsvWriter(out, names);
+            case JSONL -> new JsonlWriter(out, names);
+            case BINARY -> new BinaryWriter(out, names, decoders);
+        };
+    }
+
+    // ============================================================
+    // DECODIFICADORS DE COLUMNA
+    // ============================================================
+
+    /**
+     * Llegeix la columna "index" de la fila actual amb el getter del seu
+     * tipus i l'envia a l'escriptor. wasNull() distingeix el NULL del 0.
+     */
+    @FunctionalInterface
+    interface ColumnDecoder {
+        void decode(ResultSet rs, int index, RowWriter out) throws SQLException, IOException;
+    }
+
+    static final ColumnDecoder LONG = (rs, i, out) -> {
+        long value = rs.getLong(i);
+        if (rs.wasNull()) out.writeNull(); else out.writeLong(value);
+    };
+
+    static final ColumnDecoder DOUBLE = (rs, i, out) -> {
+        double value = rs.getDouble(i);
+        if (rs.wasNull()) out.writeNull(); else out.writeDouble(value);
+    };
+
+    static final ColumnDecoder STRING = (rs, i, out) -> {
+        String value = rs.getString(i);
+        if (value == null) out.writeNull(); else out.writeString(value);
+    };
+
+    static final ColumnDecoder BYTES = (rs, i, out) -> {
+        byte[] value = rs.getBytes(i);
+        if (value == null) out.writeNull(); else out.writeBytes(value);
+    };
+
+    static ColumnDecoder decoderFor(int sqlType) {
+        return switch (sqlType) {
+            case Types.INTEGER, Types.BIGINT, Types.SMALLINT, Types.TINYINT, Types.BOOLEAN -> LONG;
+            case Types.REAL, Types.FLOAT, Types.DOUBLE, Types.NUMERIC, Types.DECIMAL -> DOUBLE;
+            case Types.BLOB, Types.BINARY, Types.VARBINARY -> BYTES;
+            default -> STRING;
+        };
+    }
+
+    // ============================================================
+    // FORMATS DE SORTIDA
+    // ============================================================
+
+    abstract static class RowWriter {
+        void header() throws IOException {}
+        void beginRow() throws IOException {}
+        void beginColumn(int index) throws IOException {}
+        abstract void writeNull() throws IOException;
+        abstract void writeLong(long value) throws IOException;
+        abstract void writeDouble(double value) throws IOException;
+        abstract void writeString(String value) throws IOException;
+        abstract void writeBytes(byte[] value) throws IOException;
+        abstract void endRow() throws IOException;
+        abstract void finish() throws IOException;
+    }
+
+    /**
+     * Escriptors de text: BufferedWriter UTF-8 amb un buffer gran.
+     * Els binaris (BLOB) s'escriuen en hexadecimal.
+     */
+    abstract static class TextWriter extends RowWriter {
+        final Writer out;
+
+        TextWriter(OutputStream out) {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        }
+
+        @Override void writeLong(long value) throws IOException { out.write(Long.toString(value)); }
+        @Override void writeDouble(double value) throws IOException { out.write(Double.toString(value)); }
+
+        @Override
+        void writeBytes(byte[] value) throws IOException {
+            writeString(java.util.HexFormat.of().formatHex(value));
+        }
+
+        @Override void endRow() throws IOException { out.write('\n'); }
+        @Override void finish() throws IOException { out.flush(); }
+    }
+
+    /**
+     * CSV (RFC 4180): capçalera amb els noms de columna; els textos amb
+     * comes, cometes o salts de línia van entre cometes (i les cometes es
+     * dupliquen). NULL és un camp buit.
+     */
+    static final class CsvWriter extends TextWriter {
+        private final String[] names;
+
+        CsvWriter(OutputStream out, String[] names) {
+            super(out);
+            this.names = names;
+        }
+
+        @Override
+        void header() throws IOException {
+            for (int i = 0; i < names.length; i++) {
+                beginColumn(i);
+                writeString(names[i]);
+            }
+            endRow();
+        }
+
+        @Override
+        void beginColumn(int index) throws IOException {
+            if (index > 0) out.write(',');
+        }
+
+        @Override void writeNull() {}
+
+        @Override
+        void writeString(String value) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') out.write('"');
+                out.write(c);
+            }
+            out.write('"');
+        }
+    }
+
+    /**
+     * JSONL: un objecte JSON per línia. Les claus ("nom":) es preparen un
+     * sol cop per taula.
+     */
+    static final class JsonlWriter extends TextWriter {
+        private final String[] keys;
+
+        JsonlWriter(OutputStream out, String[] names) {
+            super(out);
+            keys = new String[names.length];
+            for (int i = 0; i < names.length; i++) {
+                StringBuilder key = new StringBuilder(i == 0 ? "{" : ",");
+                appendJsonString(key, names[i]);
+                keys[i] = key.append(':').toString();
+            }
+        }
+
+        @Override void beginColumn(int index) throws IOException { out.write(keys[index]); }
+        @Override void writeNull() throws IOException { out.write("null"); }
+
+        @Override
+        void writeDouble(double value) throws IOException {
+            if (Double.isFinite(value)) super.writeDouble(value); else writeNull();
+        }
+
+        @Override
+        void writeString(String value) throws IOException {
+            StringBuilder sb = new StringBuilder(value.length() + 2);
+            appendJsonString(sb, value);
+            out.append(sb);
+        }
+
+        @Override
+        void endRow() throws IOException {
+            out.write(keys.length == 0 ? "{}" : "}");
+            super.endRow();
+        }
+
+        private static void appendJsonString(StringBuilder sb, String value) {
+            sb.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"' -> sb.append("\\\"");
+                    case '\\' -> sb.append("\\\\");
+                    case '\n' -> sb.append("\\n");
+                    case '\r' -> sb.append("\\r");
+                    case '\t' -> sb.append("\\t");
+                    default -> {
+                        if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                        else sb.append(c);
+                    }
+                }
+            }
+            sb.append('"');
+        }
+    }
+
+    /**
+     * BINARI: DataOutputStream sobre un BufferedOutputStream.
+     * - Capçalera: magic "SQLD", versió, nombre de columnes i, per cada
+     *   columna, el nom i el tipus (L=long, D=double, S=text, B=bytes)
+     * - Cada fila: byte 1 i, per cada columna, byte 0 (NULL) o 1 + valor
+     *   (long/double de 8 bytes, text UTF-8 i bytes amb la longitud davant)
+     * - Final: byte 0
+     */
+    static final class BinaryWriter extends RowWriter {
+        private final DataOutputStream out;
+        private final String[] names;
+        private final ColumnDecoder[] decoders;
+
+        BinaryWriter(OutputStream out, String[] names, ColumnDecoder[] decoders) {
+            this.out = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+            this.names = names;
+            this.decoders = decoders;
+        }
+
+        @Override
+        void header() throws IOException {
+            out.writeInt(BINARY_MAGIC);
+            out.writeByte(BINARY_VERSION);
+            out.writeInt(names.length);
+            for (int i = 0; i < names.length; i++) {
+                writeUtf8(names[i]);
+                out.writeByte(typeTag(decoders[i]));
+            }
+        }
+
+        private static char typeTag(ColumnDecoder decoder) {
+            if (decoder == LONG) return 'L';
+            if (decoder == DOUBLE) return 'D';
+            if (decoder == BYTES) return 'B';
+            return 'S';
+        }
+
+        @Override void beginRow() throws IOException { out.writeByte(1); }
+        @Override void writeNull() throws IOException { out.writeByte(0); }
+
+        @Override
+        void writeLong(long value) throws IOException {
+            out.writeByte(1);
+            out.writeLong(value);
+        }
+
+        @Override
+        void writeDouble(double value) throws IOException {
+            out.writeByte(1);
+            out.writeDouble(value);
+        }
+
+        @Override
+        void writeString(String value) throws IOException {
+            out.writeByte(1);
+            writeUtf8(value);
+        }
+
+        @Override
+        void writeBytes(byte[] value) throws IOException {
+            out.writeByte(1);
+            out.writeInt(value.length);
+            out.write(value);
+        }
+
+        private void writeUtf8(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        @Override void endRow() {}
+
+        @Override
+        void finish() throws IOException {
+            out.writeByte(0);
+            out.flush();
+        }
+    }
+}
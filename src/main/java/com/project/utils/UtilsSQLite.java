@@ -3,24 +3,37 @@ package com.project.utils;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Properties;
 
 public class UtilsSQLite {
 
+    /**
+     * Connecta aplicant el perfil de PRAGMAs de hibernate.properties
+     * ("sqlite.pragma.*"), el mateix que fa servir el Manager.
+     * 
+     * Els missatges d'estat van a System.err: així la sortida estàndard
+     * queda neta per a les dades (ex: MainSQLite bolcant taules a stdout).
+     */
     public static Connection connect (String filePath) {
+        return connect(filePath, SQLitePragmas.load());
+    }
+
+    public static Connection connect (String filePath, Properties pragmas) {
         Connection conn = null;
         
         try {
             String url = "jdbc:sqlite:" + filePath;
-            conn = DriverManager.getConnection(url);
+            conn = DriverManager.getConnection(url, pragmas);
             if (conn != null) {
                 DatabaseMetaData meta = conn.getMetaData();
-                System.out.println("BBDD driver: " + meta.getDriverName());
+                System.err.println("BBDD driver: " + meta.getDriverName());
             }
-            System.out.println("BBDD SQLite connectada");
+            System.err.println("BBDD SQLite connectada");
         } catch (SQLException e) { e.printStackTrace(); }
 
         return conn;
@@ -30,37 +43,64 @@ public class UtilsSQLite {
         try {
             if (conn != null) { 
                 conn.close(); 
-                System.out.println("DDBB SQLite desconnectada");
+                System.err.println("DDBB SQLite desconnectada");
             }
-        } catch (SQLException ex) { System.out.println(ex.getMessage()); }
+        } catch (SQLException ex) { System.err.println(ex.getMessage()); }
     }
 
     public static ArrayList<String> listTables (Connection conn) {
         ArrayList<String> list = new ArrayList<>();
-        try {
-            ResultSet rs = conn.getMetaData().getTables(null, null, null, null);
+        try (ResultSet rs = conn.getMetaData().getTables(null, null, null, null)) {
             while (rs.next()) {
                 list.add(rs.getString("TABLE_NAME"));
             }
-        } catch (SQLException ex) { System.out.println(ex.getMessage()); }
+        } catch (SQLException ex) { System.err.println(ex.getMessage()); }
         return list;
     }
 
+    /**
+     * TRY-WITH-RESOURCES: El Statement es tanca en acabar, també si hi ha
+     * error. Sense tancar-lo, cada crida deixava oberta una sentència
+     * compilada de SQLite (memòria nativa) fins que el GC la recollia.
+     * 
+     * Per a SQL amb valors variables o que es repeteix, millor
+     * queryUpdate(conn, sql, params...) o una StatementCache.
+     */
     public static int queryUpdate (Connection conn, String sql) {
         int result = 0;
-        try {
-            Statement stmt = conn.createStatement();
+        try (Statement stmt = conn.createStatement()) {
             result = stmt.executeUpdate(sql);
         } catch (SQLException e) { e.printStackTrace(); }
         return result;
     }
 
+    /**
+     * Variant amb paràmetres (?): els valors es passen a part i no es
+     * concatenen al SQL.
+     */
+    public static int queryUpdate (Connection conn, String sql, Object... params) {
+        int result = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            result = stmt.executeUpdate();
+        } catch (SQLException e) { e.printStackTrace(); }
+        return result;
+    }
+
+    /**
+     * CLOSEONCOMPLETION: El Statement es tanca automàticament quan es
+     * tanca el ResultSet retornat. Qui crida ha de tancar el ResultSet
+     * (millor amb try-with-resources).
+     */
     public static ResultSet querySelect (Connection conn, String sql) {
         ResultSet rs = null;
         try {
             Statement stmt = conn.createStatement();
+            stmt.closeOnCompletion();
             rs = stmt.executeQuery(sql);
         } catch (SQLException e) { e.printStackTrace(); }
         return rs;
     }
-}
\ No newline at end of file
+}
@@ -2,11 +2,46 @@ package com.project;
 
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.hibernate.Hibernate;
+import org.hibernate.stat.CacheRegionStatistics;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.project.bulk.BulkProgress;
+import com.project.bulk.ItemRecord;
+import com.project.codec.EntityCodec;
+import com.project.metrics.InMemoryMetricsRegistry;
+import com.project.metrics.MetricsRegistry;
+import com.project.utils.MainSQLite;
+import com.project.utils.ParallelSnapshot;
+import com.project.utils.StatementCache;
+import com.project.utils.TableDumper;
+import com.project.utils.UtilsSQLite;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -178,6 +213,31 @@ public class CartItemTest {
         }
     }
     
+    /**
+     * TEST: Amb el generador "native", un INSERT fet fora d'Hibernate
+     * (SQL directe) no fa fallar les insercions següents del Manager:
+     * SQLite assigna cada ID en el moment de l'INSERT.
+     */
+    @Test
+    @Order(4)
+    @DisplayName("Insercions fora d'Hibernate no trenquen addItem")
+    public void testAddItemAfterNativeInsert() {
+        // Arrange
+        Manager.queryUpdate("INSERT INTO Item (name) VALUES ('Inserit amb SQL')");
+
+        // Act
+        Item item = Manager.addItem("Després del SQL");
+
+        try {
+            // Assert
+            assertTrue(item.getItemId() > testItem2.getItemId());
+            assertEquals("Després del SQL", Manager.getById(Item.class, item.getItemId()).getName());
+        } finally {
+            Manager.delete(Item.class, item.getItemId());
+            Manager.queryUpdate("DELETE FROM Item WHERE name = 'Inserit amb SQL'");
+        }
+    }
+    
     // =========================================================================
     // TESTS DE RELACIONS BIDIRECCIONALS
     // =========================================================================
@@ -776,4 +836,1218 @@ public class CartItemTest {
         assertEquals(1, cart.getItems().size(), 
             "El Set no hauria de contenir duplicats");
     }
-}
\ No newline at end of file
+
+    // =========================================================================
+    // TESTS D'INSERCIÓ MASSIVA
+    // =========================================================================
+
+    /**
+     * TEST: addItems insereix tots els elements en una sola transacció
+     * i retorna els IDs generats en l'ordre d'entrada.
+     * 
+     * Utilitzem més elements que la mida del lot (batch_size) per
+     * comprovar que el flush()/clear() periòdic no perd cap entitat.
+     */
+    @Test
+    @Order(80)
+    @DisplayName("addItems insereix en bloc i retorna els IDs")
+    public void testAddItemsBulk() {
+        // Arrange
+        List<String> noms = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            noms.add("Item Massiu " + i);
+        }
+
+        // Act
+        List<Long> ids = Manager.addItems(noms);
+
+        try {
+            // Assert
+            assertEquals(noms.size(), ids.size(), "Hi ha d'haver un ID per cada nom");
+            assertEquals(noms.size(), new HashSet<>(ids).size(), "Els IDs han de ser únics");
+            for (int i = 0; i < ids.size(); i += 37) {
+                Item item = Manager.getById(Item.class, ids.get(i));
+                assertNotNull(item, "L'item " + ids.get(i) + " hauria d'existir");
+                assertEquals(noms.get(i), item.getName(), "Els IDs han de seguir l'ordre d'entrada");
+            }
+        } finally {
+            ids.forEach(id -> Manager.delete(Item.class, id));
+        }
+    }
+
+    /**
+     * TEST: addCarts amb una col·lecció buida no falla i no insereix res.
+     */
+    @Test
+    @Order(81)
+    @DisplayName("addCarts insereix en bloc i accepta col·leccions buides")
+    public void testAddCartsBulk() {
+        // Act
+        List<Long> buits = Manager.addCarts(List.of());
+        List<Long> ids = Manager.addCarts(List.of("Bloc A", "Bloc B", "Bloc C"));
+
+        try {
+            // Assert
+            assertTrue(buits.isEmpty(), "Sense entrada no s'han de generar IDs");
+            assertEquals(3, ids.size());
+            assertEquals("Bloc B", Manager.getById(Cart.class, ids.get(1)).getType());
+        } finally {
+            ids.forEach(id -> Manager.delete(Cart.class, id));
+        }
+    }
+
+    // =========================================================================
+    // TESTS D'ACTUALITZACIÓ PER DIFERÈNCIA
+    // =========================================================================
+
+    /**
+     * TEST: updateCart només aplica la diferència entre el conjunt actual
+     * i el nou: els Items que es mantenen continuen vinculats, els que
+     * surten queden sense Cart i els IDs inexistents s'ignoren.
+     */
+    @Test
+    @Order(90)
+    @DisplayName("updateCart aplica només la diferència d'Items")
+    public void testUpdateCartDiff() {
+        // Arrange - Cart amb item1 i item2
+        Manager.updateCart(testCart.getCartId(), testCart.getType(), 
+            new HashSet<>(List.of(testItem1, testItem2)));
+        Item item3 = Manager.addItem("Item Test 3");
+        Item inexistent = new Item("Inexistent");
+        inexistent.setItemId(99999L);
+
+        try {
+            // Act - Es queda item1, surt item2, entra item3
+            Manager.updateCart(testCart.getCartId(), "Carret Canviat", 
+                new HashSet<>(List.of(testItem1, item3, inexistent)));
+
+            // Assert
+            Cart cart = Manager.getCartWithItems(testCart.getCartId());
+            assertEquals("Carret Canviat", cart.getType());
+            assertEquals(2, cart.getItems().size(), "Només item1 i item3 haurien de quedar");
+            assertTrue(cart.getItems().contains(testItem1));
+            assertTrue(cart.getItems().contains(item3));
+            assertNull(Manager.getById(Item.class, testItem2.getItemId()).getCart(),
+                "item2 hauria de quedar sense cart");
+        } finally {
+            Manager.delete(Item.class, item3.getItemId());
+        }
+    }
+
+    /**
+     * TEST: updateCart sobre un Cart inexistent no vincula cap Item.
+     */
+    @Test
+    @Order(91)
+    @DisplayName("updateCart amb Cart inexistent no modifica Items")
+    public void testUpdateCartNonExistent() {
+        // Act
+        Manager.updateCart(99999L, "No existeix", new HashSet<>(List.of(testItem1)));
+
+        // Assert
+        assertNull(Manager.getById(Item.class, testItem1.getItemId()).getCart(),
+            "L'item no s'hauria de vincular a un cart inexistent");
+    }
+
+    // =========================================================================
+    // TESTS DE CÀRREGA MÚLTIPLE
+    // =========================================================================
+
+    /**
+     * TEST: getByIds retorna les entitats en l'ordre dels IDs demanats
+     * i null per als IDs inexistents.
+     */
+    @Test
+    @Order(100)
+    @DisplayName("getByIds manté l'ordre i retorna null pels inexistents")
+    public void testGetByIds() {
+        // Act - Lots d'un element per forçar diverses consultes
+        List<Item> items = Manager.getByIds(Item.class, 
+            List.of(testItem2.getItemId(), 99999L, testItem1.getItemId()), 1);
+
+        // Assert
+        assertEquals(3, items.size(), "Hi ha d'haver una posició per cada ID");
+        assertEquals(testItem2, items.get(0));
+        assertNull(items.get(1), "Un ID inexistent hauria de retornar null");
+        assertEquals(testItem1, items.get(2));
+        assertTrue(Manager.getByIds(Cart.class, List.of()).isEmpty());
+    }
+
+    // =========================================================================
+    // TESTS DE RECORREGUT AMB MEMÒRIA CONSTANT
+    // =========================================================================
+
+    /**
+     * TEST: streamCollection visita totes les entitats que compleixen el
+     * filtre, encara que la sessió es buidi a cada bloc de fetchSize.
+     */
+    @Test
+    @Order(110)
+    @DisplayName("streamCollection recorre totes les files amb cursor")
+    public void testStreamCollection() {
+        // Arrange
+        List<Long> ids = Manager.addItems(List.of("Stream A", "Stream B", "Stream C"));
+
+        try {
+            // Act
+            List<String> noms = new ArrayList<>();
+            long count = Manager.streamCollection(Item.class, "name LIKE 'Stream %'", 2, 
+                item -> noms.add(item.getName()));
+
+            // Assert
+            assertEquals(3, count);
+            assertTrue(noms.containsAll(List.of("Stream A", "Stream B", "Stream C")));
+        } finally {
+            ids.forEach(id -> Manager.delete(Item.class, id));
+        }
+    }
+
+    /**
+     * TEST: La paginació per clau retorna pàgines ordenades per ID i
+     * forEachByKeyset no salta ni repeteix cap entitat.
+     */
+    @Test
+    @Order(111)
+    @DisplayName("Paginació per clau (keyset) ordenada i completa")
+    public void testKeysetPagination() {
+        // Act
+        List<Item> primeraPagina = Manager.listPage(Item.class, 0, 1);
+        List<Long> visitats = new ArrayList<>();
+        long count = Manager.forEachByKeyset(Item.class, 1, item -> visitats.add(item.getItemId()));
+
+        // Assert
+        assertEquals(1, primeraPagina.size());
+        assertEquals(Manager.listCollection(Item.class).size(), count);
+        assertEquals(visitats.stream().sorted().toList(), visitats, "Els IDs han d'arribar ordenats");
+        assertEquals(count, new HashSet<>(visitats).size(), "Cap ID s'ha de repetir");
+        assertTrue(visitats.contains(testItem1.getItemId()));
+    }
+
+    /**
+     * TEST: Les mides de pàgina i de fetch han de ser com a mínim 1
+     * (amb 0, forEachByKeyset no acabaria mai i streamCollection dividiria per zero).
+     */
+    @Test
+    @Order(112)
+    @DisplayName("Mides de pàgina o fetch menors que 1 es rebutgen")
+    public void testInvalidPageAndFetchSizes() {
+        assertThrows(IllegalArgumentException.class, () -> Manager.forEachByKeyset(Item.class, 0, item -> {}));
+        assertThrows(IllegalArgumentException.class, () -> Manager.listPage(Item.class, 0, -1));
+        assertThrows(IllegalArgumentException.class, () -> Manager.streamCollection(Item.class, 0, item -> {}));
+    }
+
+    // =========================================================================
+    // TESTS DE CÀRREGA LAZY I FETCH PROFILES
+    // =========================================================================
+
+    /**
+     * TEST: Cart.items és LAZY. Llistar carrets no carrega els Items,
+     * mentre que getCartWithItems i listCartsWithItems sí que ho fan.
+     * 
+     * HIBERNATE.ISINITIALIZED: Indica si una col·lecció LAZY ja s'ha
+     * carregat, sense provocar-ne la càrrega.
+     */
+    @Test
+    @Order(120)
+    @DisplayName("Cart.items és lazy i els fetch profiles el carreguen")
+    public void testLazyItemsAndFetchProfile() {
+        // Arrange
+        Manager.updateCart(testCart.getCartId(), testCart.getType(), new HashSet<>(List.of(testItem1)));
+
+        // Act
+        Cart senseItems = Manager.getById(Cart.class, testCart.getCartId());
+        Cart ambItems = Manager.getCartWithItems(testCart.getCartId());
+        Cart llistat = Manager.listCartsWithItems().stream()
+            .filter(c -> c.getCartId() == testCart.getCartId())
+            .findFirst().orElseThrow();
+
+        // Assert
+        assertFalse(Hibernate.isInitialized(senseItems.getItems()),
+            "getById no hauria de carregar els Items");
+        assertTrue(senseItems.toString().contains("no carregats"),
+            "toString no hauria d'accedir a una col·lecció no carregada");
+        assertTrue(Hibernate.isInitialized(ambItems.getItems()));
+        assertEquals(1, ambItems.getItems().size());
+        assertEquals(1, llistat.getItems().size());
+    }
+
+    // =========================================================================
+    // TESTS DEL PERFIL DE PRAGMAS DE SQLITE
+    // =========================================================================
+
+    /**
+     * TEST: Les connexions del Manager tenen aplicat el perfil de
+     * "sqlite.pragma.*" de hibernate.properties.
+     * 
+     * PRAGMA synchronous retorna 1 per NORMAL i temp_store retorna 2 per MEMORY.
+     * Es consulten totes tres en una fila amb les funcions pragma_* de SQLite.
+     */
+    @Test
+    @Order(130)
+    @DisplayName("Les connexions apliquen el perfil de PRAGMAs")
+    public void testSQLitePragmaProfile() {
+        // Act
+        Object[] fila = Manager.queryTable(
+            "SELECT j.journal_mode, s.synchronous, t.temp_store " +
+            "FROM pragma_journal_mode j, pragma_synchronous s, pragma_temp_store t").get(0);
+        Object journal = fila[0];
+        Object synchronous = fila[1];
+        Object tempStore = fila[2];
+
+        // Assert
+        assertEquals("wal", journal.toString().toLowerCase());
+        assertEquals("1", synchronous.toString(), "synchronous hauria de ser NORMAL");
+        assertEquals("2", tempStore.toString(), "temp_store hauria de ser MEMORY");
+    }
+
+    // =========================================================================
+    // TESTS DE LA CACHE DE SEGON NIVELL
+    // =========================================================================
+
+    /**
+     * TEST: Les lectures repetides d'un Cart es serveixen des de la cache
+     * de segon nivell (augmenta el comptador d'encerts de la regió).
+     */
+    @Test
+    @Order(140)
+    @DisplayName("getById repetit s'obté de la cache de segon nivell")
+    public void testSecondLevelCacheHits() {
+        // Arrange
+        CacheRegionStatistics stats = 
+            Manager.getCacheStatistics(Cart.class.getName());
+        Manager.getById(Cart.class, testCart.getCartId());
+        long encertsInicials = stats.getHitCount();
+
+        // Act
+        Cart cart = Manager.getById(Cart.class, testCart.getCartId());
+
+        // Assert
+        assertEquals(testCart.getType(), cart.getType());
+        assertTrue(stats.getHitCount() > encertsInicials, 
+            "La segona lectura hauria de ser un encert de cache");
+    }
+
+    /**
+     * TEST: La col·lecció Cart.items cachejada s'invalida quan canvien
+     * els Items (no es retorna un Item ja esborrat).
+     */
+    @Test
+    @Order(141)
+    @DisplayName("La cache de Cart.items s'invalida en modificar Items")
+    public void testCollectionCacheInvalidation() {
+        // Arrange - Carregar la col·lecció perquè quedi a la cache
+        Manager.updateCart(testCart.getCartId(), testCart.getType(), 
+            new HashSet<>(List.of(testItem1, testItem2)));
+        assertEquals(2, Manager.getCartWithItems(testCart.getCartId()).getItems().size());
+
+        // Act
+        Manager.delete(Item.class, testItem2.getItemId());
+
+        // Assert
+        Cart cart = Manager.getCartWithItems(testCart.getCartId());
+        assertEquals(1, cart.getItems().size(), "L'item esborrat no hauria de sortir de la cache");
+    }
+
+    /**
+     * TEST: Canviar el type d'un Cart amb updateCart no buida la cache de
+     * segon nivell: la lectura d'un altre Cart ja cachejat continua sent
+     * un encert (un UPDATE massiu buidaria tota la regió de Cart).
+     */
+    @Test
+    @Order(142)
+    @DisplayName("updateCart del type no buida la cache d'entitats")
+    public void testUpdateCartTypeKeepsSecondLevelCache() {
+        // Arrange
+        CacheRegionStatistics stats = Manager.getCacheStatistics(Cart.class.getName());
+        Cart altre = Manager.addCart("Cart Cachejat");
+        Manager.getById(Cart.class, altre.getCartId());
+
+        try {
+            // Act
+            Manager.updateCart(testCart.getCartId(), "Tipus Canviat", null);
+            long encertsAbans = stats.getHitCount();
+            Cart llegit = Manager.getById(Cart.class, altre.getCartId());
+
+            // Assert
+            assertEquals("Cart Cachejat", llegit.getType());
+            assertTrue(stats.getHitCount() > encertsAbans, "L'altre Cart hauria de continuar a la cache");
+            assertEquals("Tipus Canviat", Manager.getById(Cart.class, testCart.getCartId()).getType());
+        } finally {
+            Manager.delete(Cart.class, altre.getCartId());
+        }
+    }
+
+    // =========================================================================
+    // TESTS DE LA CACHE DE CONSULTES
+    // =========================================================================
+
+    /**
+     * TEST: Una consulta cacheable repetida s'obté de la cache de consultes,
+     * i una escriptura a la taula la invalida (el resultat inclou l'Item nou).
+     */
+    @Test
+    @Order(150)
+    @DisplayName("listCollection cacheable s'invalida en escriure a la taula")
+    public void testQueryCacheInvalidation() {
+        // Arrange
+        String filtre = "name LIKE 'Item Test%'";
+        int inicial = Manager.listCollection(Item.class, filtre, true).size();
+        long encertsAbans = Manager.getQueryCacheHitCount();
+
+        // Act & Assert - Segona crida: encert de cache
+        assertEquals(inicial, Manager.listCollection(Item.class, filtre, true).size());
+        assertTrue(Manager.getQueryCacheHitCount() > encertsAbans, 
+            "La segona consulta hauria de venir de la cache");
+
+        // Act & Assert - Després d'escriure, el resultat s'ha de refrescar
+        Item nou = Manager.addItem("Item Test Cache");
+        try {
+            assertEquals(inicial + 1, Manager.listCollection(Item.class, filtre, true).size(),
+                "La cache s'hauria d'invalidar després d'inserir");
+        } finally {
+            Manager.delete(Item.class, nou.getItemId());
+        }
+    }
+
+    // =========================================================================
+    // TESTS DE MÈTRIQUES
+    // =========================================================================
+
+    /**
+     * TEST: Cada operació del Manager queda registrada amb el seu nom,
+     * la durada i el nombre de sentències JDBC que ha executat.
+     * 
+     * Es fa servir un InMemoryMetricsRegistry per poder llegir les
+     * mètriques amb snapshot() sense dependre de JMX.
+     */
+    @Test
+    @Order(160)
+    @DisplayName("Les operacions registren temps i sentències per operació")
+    public void testOperationMetrics() {
+        // Arrange
+        MetricsRegistry original = Manager.getMetricsRegistry();
+        InMemoryMetricsRegistry registry = new InMemoryMetricsRegistry();
+        Manager.setMetricsRegistry(registry);
+
+        try {
+            // Act
+            Manager.updateCart(testCart.getCartId(), testCart.getType(), new HashSet<>(List.of(testItem1)));
+            Manager.getById(Item.class, 99999L);
+
+            // Assert
+            var snapshot = registry.snapshot();
+            assertEquals(1, snapshot.get("updateCart").count());
+            assertEquals(0, snapshot.get("updateCart").errors());
+            assertTrue(snapshot.get("updateCart").statements() >= 3, 
+                "updateCart hauria d'executar almenys UPDATE Cart, SELECT ids i UPDATE Item");
+            assertEquals(1, snapshot.get("getById").sessions());
+            assertTrue(snapshot.get("getById").totalNanos() > 0);
+        } finally {
+            Manager.setMetricsRegistry(original);
+        }
+    }
+
+    // =========================================================================
+    // TESTS DE L'API ASÍNCRONA
+    // =========================================================================
+
+    /**
+     * TEST: Llançar moltes lectures en paral·lel amb AsyncManager i
+     * combinar-ne els resultats.
+     * 
+     * COMPLETABLEFUTURE.ALLOF: Crea un futur que es completa quan tots
+     * els futurs indicats han acabat. join() espera el resultat.
+     */
+    @Test
+    @Order(170)
+    @DisplayName("AsyncManager executa lectures concurrents")
+    public void testAsyncManagerFanOut() {
+        // Arrange
+        AsyncManager.start(2);
+
+        try {
+            // Act - Més peticions que permisos de concurrència
+            List<CompletableFuture<Item>> futurs = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                long id = (i % 2 == 0) ? testItem1.getItemId() : testItem2.getItemId();
+                futurs.add(AsyncManager.getById(Item.class, id));
+            }
+            CompletableFuture.allOf(
+                futurs.toArray(new CompletableFuture[0])).join();
+            Cart cart = AsyncManager.getCartWithItems(testCart.getCartId()).join();
+
+            // Assert
+            assertEquals(testItem1, futurs.get(0).join());
+            assertEquals(testItem2, futurs.get(1).join());
+            assertEquals(testCart, cart);
+        } finally {
+            AsyncManager.shutdown();
+        }
+
+        // Un cop aturat, les crides fallen amb IllegalStateException (no NPE)
+        assertThrows(IllegalStateException.class, () -> AsyncManager.getById(Item.class, testItem1.getItemId()));
+
+        // Sense permisos (Semaphore(0)) els futurs no acabarien mai: es rebutja
+        assertThrows(IllegalArgumentException.class, () -> AsyncManager.start(0));
+    }
+
+    // =========================================================================
+    // TESTS DE L'ESCRIPTOR ÚNIC
+    // =========================================================================
+
+    /**
+     * TEST: Moltes escriptures concurrents des de diversos fils acaben totes
+     * bé (sense SQLITE_BUSY), i una escriptura errònia enmig només fa
+     * fallar la crida que l'ha enviat.
+     * 
+     * EXECUTORSERVICE.INVOKEALL: Llança totes les tasques i espera que acabin.
+     */
+    @Test
+    @Order(180)
+    @DisplayName("Escriptures concurrents passen per l'escriptor únic")
+    public void testConcurrentWritesThroughSingleWriter() throws Exception {
+        // Arrange
+        List<Callable<Long>> tasques = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            String nom = "Concurrent " + i;
+            tasques.add(() -> Manager.addItem(nom).getItemId());
+        }
+        List<Long> ids = new ArrayList<>();
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            // Act
+            Future<?> erroni = pool.submit(
+                () -> Manager.queryUpdate("UPDATE TaulaInexistent SET x = 1"));
+            for (Future<Long> futur : pool.invokeAll(tasques)) {
+                ids.add(futur.get());
+            }
+
+            // Assert
+            assertEquals(40, new HashSet<>(ids).size(), "Totes les insercions haurien d'acabar bé");
+            ExecutionException error = 
+                assertThrows(ExecutionException.class, erroni::get);
+            assertTrue(error.getCause() instanceof RuntimeException);
+            assertEquals(40, Manager.listCollection(Item.class, "name LIKE 'Concurrent %'").size());
+        } finally {
+            ids.forEach(id -> Manager.delete(Item.class, id));
+        }
+    }
+
+    /**
+     * TEST: Dins un grup (una sola transacció), cada escriptura veu els canvis
+     * de les anteriors. updateCart mou l'Item amb un UPDATE massiu; el segon
+     * updateItem no ha de trobar la còpia antiga de l'Item a la sessió i
+     * tornar a escriure el cartId anterior.
+     * Les mètriques es registren per cada escriptura amb el seu nom.
+     * 
+     * Per forçar el grup, una escriptura bloqueja l'escriptor mentre les
+     * altres tres s'encuen en ordre; en alliberar-lo, s'executen juntes.
+     */
+    @Test
+    @Order(181)
+    @DisplayName("Les escriptures d'un mateix grup no es desfan entre elles")
+    public void testGroupedWritesSeeEachOther() throws Exception {
+        // Arrange
+        MetricsRegistry original = Manager.getMetricsRegistry();
+        InMemoryMetricsRegistry registry = new InMemoryMetricsRegistry();
+        CountDownLatch iniciat = new CountDownLatch(1);
+        CountDownLatch allibera = new CountDownLatch(1);
+        CompletableFuture<Object> bloqueig = Manager.submitWrite("testBloqueig", session -> {
+            iniciat.countDown();
+            try {
+                allibera.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        assertTrue(iniciat.await(5, TimeUnit.SECONDS));
+        Manager.setMetricsRegistry(registry);
+        long itemId = testItem1.getItemId();
+
+        try {
+            // Act - updateItem, updateCart i updateItem sobre el mateix Item, en un sol grup
+            List<CompletableFuture<Void>> escriptures = new ArrayList<>();
+            escriptures.add(CompletableFuture.runAsync(() -> Manager.updateItem(itemId, "Grup A")));
+            waitForPendingWrites(1);
+            escriptures.add(CompletableFuture.runAsync(
+                () -> Manager.updateCart(testCart.getCartId(), "Carret de Test", Set.of(testItem1))));
+            waitForPendingWrites(2);
+            escriptures.add(CompletableFuture.runAsync(() -> Manager.updateItem(itemId, "Grup B")));
+            waitForPendingWrites(3);
+            long transaccions = Manager.getStatistics().getTransactionCount();
+            allibera.countDown();
+            bloqueig.join();
+            escriptures.forEach(CompletableFuture::join);
+
+            // Assert
+            assertEquals(2, Manager.getStatistics().getTransactionCount() - transaccions,
+                "El bloqueig i el grup de tres escriptures haurien de ser dues transaccions");
+            var snapshot = registry.snapshot();
+            assertEquals(2, snapshot.get("updateItem").count(), "Cada escriptura del grup es compta pel seu nom");
+            assertEquals(1, snapshot.get("updateCart").count());
+            assertTrue(snapshot.get("updateCart").statements() > 0);
+            assertFalse(snapshot.containsKey("groupCommit"));
+
+            Cart cart = Manager.getCartWithItems(testCart.getCartId());
+            assertEquals(Set.of(testItem1), cart.getItems(), "El canvi de Cart no s'ha de perdre");
+            assertEquals("Grup B", Manager.getById(Item.class, itemId).getName());
+        } finally {
+            allibera.countDown();
+            Manager.setMetricsRegistry(original);
+        }
+    }
+
+    private static void waitForPendingWrites(int expected) throws InterruptedException {
+        long limit = System.currentTimeMillis() + 5000;
+        while (Manager.pendingWrites() < expected) {
+            assertTrue(System.currentTimeMillis() < limit, "Les escriptures no arriben a la cua");
+            Thread.sleep(1);
+        }
+    }
+
+    // =========================================================================
+    // TESTS DE LA POLÍTICA DE REINTENTS
+    // =========================================================================
+
+    /**
+     * TEST: Només SQLITE_BUSY (5) i SQLITE_LOCKED (6), encara que vinguin
+     * embolcallats en altres excepcions, es reintenten; el backoff creix
+     * exponencialment amb jitter i mai supera el màxim.
+     */
+    @Test
+    @Order(190)
+    @DisplayName("Política de reintents: errors transitoris i backoff")
+    public void testRetryPolicy() {
+        // Arrange
+        RetryPolicy policy = RetryPolicy.fromProperties(Map.of(
+            "manager.retry.max_attempts", "3",
+            "manager.retry.base_delay_ms", "10",
+            "manager.retry.max_delay_ms", "30"));
+        SQLException busy = new SQLException("database is locked", null, 5);
+        SQLException busySnapshot = new SQLException("busy snapshot", null, 517);
+        SQLException locked = new SQLException("table is locked", null, 6);
+        SQLException syntax = new SQLException("syntax error", null, 1);
+
+        // Assert: classificació
+        assertTrue(policy.isTransient(new RuntimeException(busy)), "SQLITE_BUSY embolcallat és transitori");
+        assertTrue(policy.isTransient(busySnapshot), "Els codis estesos de BUSY són transitoris");
+        assertTrue(policy.isTransient(locked));
+        assertFalse(policy.isTransient(new RuntimeException(syntax)), "Un error de sintaxi no es reintenta");
+
+        // Assert: nombre d'intents
+        assertTrue(policy.shouldRetry(2, busy));
+        assertFalse(policy.shouldRetry(3, busy), "El tercer intent és l'últim");
+        assertFalse(RetryPolicy.NONE.shouldRetry(1, busy));
+
+        // Assert: backoff (entre la meitat i el valor complet, limitat a 30 ms)
+        for (int i = 0; i < 100; i++) {
+            long primer = policy.backoffMillis(1);
+            long desene = policy.backoffMillis(10);
+            assertTrue(primer >= 5 && primer <= 10, "Intent 1: entre 5 i 10 ms");
+            assertTrue(desene >= 15 && desene <= 30, "Limitat pel màxim de 30 ms");
+        }
+    }
+
+    // =========================================================================
+    // TESTS DE LECTURES NOMÉS LECTURA
+    // =========================================================================
+
+    /**
+     * TEST: Les consultes s'executen en mode només lectura: en fer commit
+     * no hi ha cap flush (FlushMode.MANUAL) i els resultats són correctes.
+     * listCollection sense cache (StatelessSession) retorna els Carts amb
+     * la col·lecció d'Items sense carregar.
+     */
+    @Test
+    @Order(200)
+    @DisplayName("Les lectures no fan flush ni dirty-checking")
+    public void testReadOnlyQueries() {
+        // Arrange
+        MetricsRegistry original = Manager.getMetricsRegistry();
+        InMemoryMetricsRegistry registry = new InMemoryMetricsRegistry();
+        Manager.setMetricsRegistry(registry);
+        Manager.updateCart(testCart.getCartId(), testCart.getType(), new HashSet<>(List.of(testItem1)));
+
+        try {
+            // Act
+            Cart perId = Manager.getById(Cart.class, testCart.getCartId());
+            Cart ambItems = Manager.getCartWithItems(testCart.getCartId());
+            List<Cart> llistat = Manager.listCollection(Cart.class, "cartId = " + testCart.getCartId());
+            long recorreguts = Manager.streamCollection(Item.class, 10, item -> {});
+
+            // Assert
+            assertEquals(testCart.getType(), perId.getType());
+            assertEquals(1, ambItems.getItems().size());
+            assertEquals(1, llistat.size());
+            assertFalse(Hibernate.isInitialized(llistat.get(0).getItems()),
+                "La StatelessSession no carrega la col·lecció lazy");
+            assertTrue(recorreguts >= 2);
+
+            var snapshot = registry.snapshot();
+            for (String operacio : List.of("getById", "getCartWithItems", "listCollection", "streamCollection")) {
+                assertEquals(0, snapshot.get(operacio).flushes(), operacio + " no hauria de fer flush");
+                assertEquals(0, snapshot.get(operacio).errors());
+            }
+        } finally {
+            Manager.setMetricsRegistry(original);
+        }
+    }
+
+    // =========================================================================
+    // TESTS DE CÀRREGA MASSIVA
+    // =========================================================================
+
+    /**
+     * TEST: importItems crea els Carts una sola vegada per clau natural
+     * (type) i enllaça cada Item amb el seu Cart; exportItems retorna les
+     * mateixes files.
+     */
+    @Test
+    @Order(210)
+    @DisplayName("Importació i exportació massiva amb StatelessSession")
+    public void testBulkImportExport() {
+        // Arrange
+        List<ItemRecord> registres = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            registres.add(new ItemRecord("Import " + (i % 2 == 0 ? "Parell" : "Senar"), "Import " + i));
+        }
+        registres.add(new ItemRecord(null, "Import Sense Cart"));
+        registres.add(new ItemRecord("Import Buit", null));
+        List<BulkProgress> informes = new ArrayList<>();
+        MetricsRegistry original = Manager.getMetricsRegistry();
+        InMemoryMetricsRegistry registry = new InMemoryMetricsRegistry();
+        Manager.setMetricsRegistry(registry);
+
+        try {
+            // Act
+            BulkProgress resultat = Manager.importItems(registres, informes::add);
+            List<ItemRecord> exportats = new ArrayList<>();
+            Manager.exportItems(exportats::add, p -> {});
+
+            // Assert
+            assertEquals(502, resultat.rows());
+            assertEquals(resultat, informes.get(informes.size() - 1), "L'últim informe és el resultat final");
+            List<Cart> carts = Manager.listCollection(Cart.class, "type LIKE 'Import %'");
+            assertEquals(3, carts.size(), "Un Cart per cada clau natural");
+            Cart parell = carts.stream().filter(c -> c.getType().equals("Import Parell")).findFirst().orElseThrow();
+            assertEquals(250, Manager.getCartWithItems(parell.getCartId()).getItems().size());
+            assertEquals(0, registry.snapshot().get("importItems").entityLoads(), 
+                "Els Items s'enllacen amb el Cart sense carregar-lo");
+
+            assertTrue(exportats.contains(new ItemRecord("Import Senar", "Import 1")));
+            assertTrue(exportats.contains(new ItemRecord(null, "Import Sense Cart")));
+            assertTrue(exportats.contains(new ItemRecord("Import Buit", null)));
+        } finally {
+            Manager.setMetricsRegistry(original);
+            Manager.queryUpdate("DELETE FROM Item WHERE name LIKE 'Import %'");
+            Manager.queryUpdate("DELETE FROM Cart WHERE type LIKE 'Import %'");
+        }
+    }
+
+    /**
+     * TEST: Amb el mapeig opcional "increment" (hibernate-increment.cfg.xml),
+     * la StatelessSession d'importItems té transacció pròpia i agrupa els
+     * INSERT en lots JDBC: moltes menys sentències que files.
+     * 
+     * Es fa sobre una BBDD temporal i després es torna a obrir la
+     * SessionFactory per defecte per a la resta de tests.
+     */
+    @Test
+    @Order(211)
+    @DisplayName("Amb el generador increment, importItems insereix en lots")
+    public void testBulkImportBatchesWithIncrementIds() throws Exception {
+        // Arrange
+        Path fitxer = Files.createTempFile("increment-", ".db");
+        Properties props = new Properties();
+        props.setProperty("hibernate.connection.url", "jdbc:sqlite:" + fitxer.toAbsolutePath());
+        List<ItemRecord> registres = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            registres.add(new ItemRecord("Lot " + (i % 2), "Lot " + i));
+        }
+        MetricsRegistry original = Manager.getMetricsRegistry();
+        InMemoryMetricsRegistry registry = new InMemoryMetricsRegistry();
+
+        try {
+            Manager.close();
+            Manager.createSessionFactory("hibernate-increment.cfg.xml", props);
+            Manager.setMetricsRegistry(registry);
+
+            // Act
+            BulkProgress resultat = Manager.importItems(registres, p -> {});
+
+            // Assert
+            assertEquals(500, resultat.rows());
+            assertEquals(500, Manager.listCollection(Item.class).size());
+            assertTrue(registry.snapshot().get("importItems").statements() < 50,
+                "Els INSERT s'haurien d'executar en lots, no fila a fila");
+        } finally {
+            Manager.setMetricsRegistry(original);
+            Manager.close();
+            Manager.createSessionFactory();
+            for (String sufix : new String[] {"", "-wal", "-shm"}) {
+                Files.deleteIfExists(Path.of(fitxer + sufix));
+            }
+        }
+    }
+
+    // =========================================================================
+    // TESTS D'ESBORRAT MASSIU
+    // =========================================================================
+
+    /**
+     * TEST: deleteCartsCascade esborra els Carts i els seus Items amb
+     * sentències massives, sense carregar cap entitat, i la cache de segon
+     * nivell no torna dades esborrades.
+     */
+    @Test
+    @Order(220)
+    @DisplayName("deleteCartsCascade esborra Carts i Items sense carregar-los")
+    public void testDeleteCartsCascade() {
+        // Arrange
+        Manager.updateCart(testCart.getCartId(), testCart.getType(), new HashSet<>(List.of(testItem1, testItem2)));
+        assertEquals(2, Manager.getCartWithItems(testCart.getCartId()).getItems().size());
+        MetricsRegistry original = Manager.getMetricsRegistry();
+        InMemoryMetricsRegistry registry = new InMemoryMetricsRegistry();
+        Manager.setMetricsRegistry(registry);
+
+        try {
+            // Act
+            int esborrats = Manager.deleteCartsCascade(List.of(testCart.getCartId(), 99999L));
+
+            // Assert
+            assertEquals(1, esborrats);
+            assertEquals(0, registry.snapshot().get("deleteCartsCascade").entityLoads(), 
+                "No s'hauria de carregar cap entitat");
+            assertNull(Manager.getById(Cart.class, testCart.getCartId()), "El Cart no hauria de sortir de la cache");
+            assertNull(Manager.getById(Item.class, testItem1.getItemId()));
+            assertNull(Manager.getById(Item.class, testItem2.getItemId()));
+            assertEquals(0, Manager.deleteCartsCascade(List.of()));
+        } finally {
+            Manager.setMetricsRegistry(original);
+        }
+    }
+
+    /**
+     * TEST: deleteWhere amb Carts esborra també els Items dels Carts que
+     * compleixen la condició, i deixa intactes els altres.
+     */
+    @Test
+    @Order(221)
+    @DisplayName("deleteWhere esborra per condició amb cascada a Items")
+    public void testDeleteWhere() {
+        // Arrange
+        Cart altre = Manager.addCart("Esborrat Massiu");
+        Manager.updateCart(altre.getCartId(), altre.getType(), new HashSet<>(List.of(testItem1)));
+
+        // Act
+        int carts = Manager.deleteWhere(Cart.class, "type = 'Esborrat Massiu'");
+        int items = Manager.deleteWhere(Item.class, "name = 'Cap Item Amb Aquest Nom'");
+
+        // Assert
+        assertEquals(1, carts);
+        assertEquals(0, items);
+        assertNull(Manager.getById(Item.class, testItem1.getItemId()), "L'Item del Cart esborrat també s'esborra");
+        assertNotNull(Manager.getById(Item.class, testItem2.getItemId()));
+        assertNotNull(Manager.getById(Cart.class, testCart.getCartId()));
+    }
+
+    // =========================================================================
+    // TESTS DE CONSULTES AMB PARÀMETRES
+    // =========================================================================
+
+    /**
+     * TEST: listWhere i les consultes amb nom retornen el mateix que la
+     * versió amb la condició concatenada, i a partir de la segona crida el
+     * pla de la consulta surt de la cache encara que canviïn els valors.
+     */
+    @Test
+    @Order(230)
+    @DisplayName("Consultes amb paràmetres reutilitzen el pla")
+    public void testParameterizedQueries() {
+        // Arrange
+        Manager.updateCart(testCart.getCartId(), testCart.getType(), new HashSet<>(List.of(testItem1)));
+        MetricsRegistry original = Manager.getMetricsRegistry();
+        InMemoryMetricsRegistry registry = new InMemoryMetricsRegistry();
+
+        try {
+            // Act
+            List<Item> perNom = Manager.listWhere(Item.class, "name = :name", 
+                Map.of("name", "Item Test 1"));
+            Manager.setMetricsRegistry(registry);
+            List<Item> perIds = Manager.listWhere(Item.class, "itemId IN (:ids)", 
+                Map.of("ids", List.of(testItem1.getItemId(), testItem2.getItemId())));
+            List<Item> perIdsAltre = Manager.listWhere(Item.class, "itemId IN (:ids)", 
+                Map.of("ids", List.of(testItem2.getItemId())));
+            List<Item> delCart = Manager.listNamed("Item.byCart", Item.class, 
+                Map.of("cartId", testCart.getCartId()));
+            List<Cart> perTipus = Manager.listNamed("Cart.byType", Cart.class, 
+                Map.of("type", testCart.getType()));
+
+            // Assert
+            assertTrue(perNom.contains(testItem1));
+            assertEquals(2, perIds.size());
+            assertEquals(List.of(testItem2), perIdsAltre);
+            assertEquals(List.of(testItem1), delCart);
+            assertTrue(perTipus.contains(testCart));
+
+            var snapshot = registry.snapshot();
+            assertTrue(snapshot.get("listWhere").planCacheHits() >= 1, 
+                "El segon valor de :ids hauria de reutilitzar el pla");
+            assertTrue(snapshot.get("listNamed").planCacheHitRate() > 0);
+        } finally {
+            Manager.setMetricsRegistry(original);
+        }
+    }
+
+    // =========================================================================
+    // TESTS D'ÍNDEXS
+    // =========================================================================
+
+    /**
+     * TEST: L'esquema generat a partir dels mapejos inclou els índexs de
+     * la taula Item, i SQLite els fa servir per buscar els Items d'un Cart.
+     */
+    @Test
+    @Order(240)
+    @DisplayName("Els índexs de Item es creen i s'utilitzen")
+    public void testItemIndexes() {
+        // Act
+        List<Object[]> indexs = Manager.queryTable(
+            "SELECT name, tbl_name FROM sqlite_master WHERE type = 'index' AND tbl_name = 'Item'");
+        List<Object[]> pla = Manager.queryTable(
+            "EXPLAIN QUERY PLAN SELECT id FROM Item WHERE cartId = 1");
+
+        // Assert
+        List<Object> noms = indexs.stream().map(fila -> fila[0]).toList();
+        assertTrue(noms.contains("idx_item_cart"), "Falta l'índex de cartId: " + noms);
+        assertTrue(noms.contains("idx_item_name"), "Falta l'índex de name: " + noms);
+        assertTrue(pla.stream().anyMatch(fila -> fila[fila.length - 1].toString().contains("idx_item_cart")),
+            "La cerca per cartId hauria d'usar l'índex");
+    }
+
+    // =========================================================================
+    // TESTS DE JDBC DIRECTE
+    // =========================================================================
+
+    /**
+     * TEST: StatementCache compila cada SQL un sol cop, executa lots amb
+     * paràmetres, descarta (i tanca) la sentència menys usada quan s'omple
+     * i en tancar-se tanca totes les sentències.
+     */
+    @Test
+    @Order(250)
+    @DisplayName("StatementCache reutilitza PreparedStatements i no en deixa d'obertes")
+    public void testStatementCache() throws Exception {
+        // Arrange
+        Path fitxer = Files.createTempFile("statements-", ".db");
+        Connection conn = UtilsSQLite.connect(fitxer.toString());
+        PreparedStatement insert;
+        PreparedStatement select;
+
+        try (StatementCache cache = new StatementCache(conn, 2)) {
+            UtilsSQLite.queryUpdate(conn, "CREATE TABLE t (id INTEGER, nom TEXT)");
+            List<Object[]> files = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                files.add(new Object[] { i, "Fila " + i });
+            }
+
+            // Act
+            int[] inserides = cache.batch("INSERT INTO t (id, nom) VALUES (?, ?)", files);
+            insert = cache.prepare("INSERT INTO t (id, nom) VALUES (?, ?)");
+            List<String> noms = cache.query("SELECT nom FROM t WHERE id < ? ORDER BY id", rs -> rs.getString(1), 3);
+            List<String> altres = cache.query("SELECT nom FROM t WHERE id < ? ORDER BY id", rs -> rs.getString(1), 2);
+            int esborrades = cache.update("DELETE FROM t WHERE id >= ?", 50);
+
+            // Assert
+            assertEquals(100, inserides.length);
+            assertEquals(List.of("Fila 0", "Fila 1", "Fila 2"), noms);
+            assertEquals(List.of("Fila 0", "Fila 1"), altres);
+            assertEquals(50, esborrades);
+            assertEquals(2, cache.size(), "La cache no supera la capacitat");
+            assertEquals(3, cache.getMissCount(), "Cada SQL diferent es compila un sol cop");
+            assertEquals(2, cache.getHitCount());
+            assertTrue(insert.isClosed(), "La sentència descartada per LRU es tanca");
+            select = cache.prepare("SELECT nom FROM t WHERE id < ? ORDER BY id");
+            assertFalse(select.isClosed());
+        } finally {
+            UtilsSQLite.disconnect(conn);
+            Files.deleteIfExists(fitxer);
+        }
+
+        assertTrue(select.isClosed(), "En tancar la cache es tanquen totes les sentències");
+    }
+
+    /**
+     * TEST: TableDumper bolca cada taula en els tres formats amb les
+     * mateixes files, escapa els textos i informa de les files escrites.
+     */
+    @Test
+    @Order(260)
+    @DisplayName("TableDumper exporta taules a CSV, JSONL i binari")
+    public void testTableDumper() throws Exception {
+        // Arrange
+        Path fitxer = Files.createTempFile("dump-", ".db");
+        Path directori = Files.createTempDirectory("dump-");
+        Connection conn = UtilsSQLite.connect(fitxer.toString());
+
+        try {
+            UtilsSQLite.queryUpdate(conn, "CREATE TABLE t (id INTEGER, nom TEXT, preu REAL)");
+            UtilsSQLite.queryUpdate(conn, "INSERT INTO t VALUES (?, ?, ?)", 1, "Simple", 1.5);
+            UtilsSQLite.queryUpdate(conn, "INSERT INTO t VALUES (?, ?, ?)", 2, "Amb \"cometes\", i coma", null);
+            List<String> taules = UtilsSQLite.listTables(conn);
+
+            // Act
+            var csv = new TableDumper(conn, TableDumper.Format.CSV, 1)
+                .dumpAll(taules, directori);
+            new TableDumper(conn, TableDumper.Format.JSONL).dumpAll(taules, directori);
+            new TableDumper(conn, TableDumper.Format.BINARY).dumpAll(taules, directori);
+
+            // Assert
+            assertTrue(taules.contains("t"));
+            assertEquals(2, csv.get(taules.indexOf("t")).rows());
+            assertEquals(List.of("id,nom,preu", "1,Simple,1.5", "2,\"Amb \"\"cometes\"\", i coma\","),
+                Files.readAllLines(directori.resolve("t.csv")));
+            assertEquals(List.of("{\"id\":1,\"nom\":\"Simple\",\"preu\":1.5}", 
+                    "{\"id\":2,\"nom\":\"Amb \\\"cometes\\\", i coma\",\"preu\":null}"),
+                Files.readAllLines(directori.resolve("t.jsonl")));
+            try (DataInputStream in = new DataInputStream(
+                    Files.newInputStream(directori.resolve("t.bin")))) {
+                assertEquals(0x53514C44, in.readInt(), "Capçalera SQLD");
+                assertEquals(1, in.readByte());
+                assertEquals(3, in.readInt());
+            }
+        } finally {
+            UtilsSQLite.disconnect(conn);
+            try (var fitxers = Files.list(directori)) {
+                for (Path f : fitxers.toList()) Files.delete(f);
+            }
+            Files.delete(directori);
+            Files.deleteIfExists(fitxer);
+        }
+    }
+
+    /**
+     * TEST: MainSQLite bolca la base de dades que ha creat Hibernate i
+     * salta les taules internes de SQLite (sqlite_*). Sense directori, la
+     * sortida estàndard només conté les dades (els missatges van a stderr).
+     */
+    @Test
+    @Order(265)
+    @DisplayName("MainSQLite bolca la BBDD d'Hibernate sense les taules sqlite_*")
+    public void testMainSQLiteDumpsHibernateDatabase() throws Exception {
+        // Arrange
+        Path directori = Files.createTempDirectory("mainsqlite-");
+        System.setProperty("sqlite.database", "./data/database-test.db");
+
+        try {
+            // Act
+            MainSQLite.main(new String[] { "csv", directori.toString() });
+
+            // Assert
+            List<String> fitxers;
+            try (var llista = Files.list(directori)) {
+                fitxers = llista.map(f -> f.getFileName().toString()).sorted().toList();
+            }
+            // La BBDD de test és persistent (hbm2ddl=create no esborra taules que
+            // no mapeja), per això només es comprova el que ha de ser-hi o no
+            assertTrue(fitxers.containsAll(List.of("Cart.csv", "Item.csv")), fitxers.toString());
+            assertTrue(fitxers.stream().noneMatch(f -> f.startsWith("sqlite_")), fitxers.toString());
+            assertTrue(Files.readAllLines(directori.resolve("Cart.csv"))
+                .contains(testCart.getCartId() + ",Carret de Test"));
+
+            // Act - Sortida estàndard
+            ByteArrayOutputStream capturat = new ByteArrayOutputStream();
+            PrintStream original = System.out;
+            System.setOut(new PrintStream(capturat, true, StandardCharsets.UTF_8));
+            try {
+                MainSQLite.main(new String[] { "csv" });
+            } finally {
+                System.setOut(original);
+            }
+
+            // Assert - Només capçaleres i files de Cart i Item
+            String sortida = capturat.toString(StandardCharsets.UTF_8);
+            assertTrue(sortida.startsWith("cartId,type\n"), "La sortida ha de començar amb la capçalera de Cart");
+            assertFalse(sortida.contains("BBDD"), "Els missatges de connexió no han d'anar a stdout");
+            assertFalse(sortida.contains("DDBB"));
+
+            // Assert - restore sense la BBDD de destí mostra l'ús en lloc de petar
+            assertDoesNotThrow(() -> MainSQLite.main(new String[] { "restore", directori.toString() }));
+        } finally {
+            System.clearProperty("sqlite.database");
+            try (var fitxers = Files.list(directori)) {
+                for (Path f : fitxers.toList()) Files.delete(f);
+            }
+            Files.delete(directori);
+        }
+    }
+
+    /**
+     * TEST: ParallelSnapshot parteix les taules per rangs de rowid, les
+     * exporta en paral·lel i les restaura a una base de dades buida amb
+     * les mateixes files i els mateixos índexs.
+     */
+    @Test
+    @Order(270)
+    @DisplayName("ParallelSnapshot exporta i restaura per particions")
+    public void testParallelSnapshot() throws Exception {
+        // Arrange
+        Path origen = Files.createTempFile("origen-", ".db");
+        Path desti = Files.createTempFile("desti-", ".db");
+        Path directori = Files.createTempDirectory("snapshot-");
+        Connection conn = UtilsSQLite.connect(origen.toString());
+        Connection restaurada = null;
+
+        try {
+            UtilsSQLite.queryUpdate(conn, "CREATE TABLE t (id INTEGER PRIMARY KEY, nom TEXT)");
+            UtilsSQLite.queryUpdate(conn, "CREATE INDEX idx_t_nom ON t (nom)");
+            try (StatementCache cache = new StatementCache(conn)) {
+                List<Object[]> files = new ArrayList<>();
+                for (int i = 1; i <= 1000; i++) {
+                    files.add(new Object[] { i, i % 7 == 0 ? null : "Fila " + i });
+                }
+                cache.batch("INSERT INTO t (id, nom) VALUES (?, ?)", files);
+            }
+
+            // Act
+            var exportades = ParallelSnapshot.export(origen.toString(), directori, 4, 300);
+            var importades = ParallelSnapshot.importInto(desti.toString(), directori, 4);
+
+            // Assert
+            assertEquals(4, exportades.size(), "1000 files en particions de 300");
+            assertEquals(1000, exportades.stream().mapToLong(TableDumper.Stats::rows).sum());
+            assertEquals(1000, importades.stream().mapToLong(TableDumper.Stats::rows).sum());
+
+            restaurada = UtilsSQLite.connect(desti.toString());
+            try (StatementCache cache = new StatementCache(restaurada)) {
+                assertEquals(List.of(1000L * 1001 / 2), 
+                    cache.query("SELECT sum(id) FROM t", rs -> rs.getLong(1)));
+                assertEquals(List.of(142), 
+                    cache.query("SELECT count(*) FROM t WHERE nom IS NULL", rs -> rs.getInt(1)));
+                assertEquals(List.of("Fila 500"), 
+                    cache.query("SELECT nom FROM t WHERE id = ?", rs -> rs.getString(1), 500));
+                assertEquals(1, cache.query("SELECT name FROM sqlite_schema WHERE name = 'idx_t_nom'", 
+                    rs -> rs.getString(1)).size(), "L'índex es recrea");
+            }
+        } finally {
+            UtilsSQLite.disconnect(conn);
+            UtilsSQLite.disconnect(restaurada);
+            try (var fitxers = Files.list(directori)) {
+                for (Path f : fitxers.toList()) Files.delete(f);
+            }
+            Files.delete(directori);
+            Files.deleteIfExists(origen);
+            Files.deleteIfExists(desti);
+        }
+    }
+
+
+    /**
+     * TEST: EntityCodec codifica Cart i Item en un format binari propi:
+     * els Items d'un Cart i el Cart d'un Item es guarden només com a IDs,
+     * una col·lecció lazy no es carrega en codificar, i una versió de format
+     * desconeguda o un tipus equivocat es rebutgen. El resultat és molt més
+     * petit que amb la serialització estàndard de Java.
+     */
+    @Test
+    @Order(280)
+    @DisplayName("EntityCodec codifica Cart i Item amb IDs i és més compacte que Serializable")
+    public void testEntityCodec() throws Exception {
+        // Arrange
+        Cart cart = Manager.addCart("Codec");
+        Set<Item> items = new HashSet<>();
+        for (String nom : List.of("Poma", "Pera", "Préssec")) {
+            items.add(Manager.addItem(nom));
+        }
+
+        try {
+            Manager.updateCart(cart.getCartId(), "Codec", items);
+            Cart carregat = Manager.getCartWithItems(cart.getCartId());
+            Item item = carregat.getItems().iterator().next();
+
+            // Act
+            byte[] bytesCart = EntityCodec.encode(carregat);
+            byte[] bytesItem = EntityCodec.encode(item);
+            Cart cartDecodificat = EntityCodec.decodeCart(bytesCart);
+            Item itemDecodificat = EntityCodec.decodeItem(bytesItem);
+
+            ByteArrayOutputStream serialitzat = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(serialitzat)) {
+                out.writeObject(item);
+            }
+
+            // Assert
+            assertEquals(carregat.getCartId(), cartDecodificat.getCartId());
+            assertEquals("Codec", cartDecodificat.getType());
+            assertEquals(items, cartDecodificat.getItems(), "Mateixos IDs d'Items");
+            assertEquals(item.getItemId(), itemDecodificat.getItemId());
+            assertEquals(item.getName(), itemDecodificat.getName());
+            assertEquals(cart.getCartId(), itemDecodificat.getCart().getCartId(), "La relació és només el cartId");
+            assertTrue(bytesItem.length * 10 < serialitzat.size(), 
+                "Codec: " + bytesItem.length + " bytes, Serializable: " + serialitzat.size() + " bytes");
+
+            Cart senseItems = Manager.getById(Cart.class, cart.getCartId());
+            Cart lazyDecodificat = EntityCodec.decodeCart(EntityCodec.encode(senseItems));
+            assertTrue(lazyDecodificat.getItems().isEmpty(), "Col·lecció lazy no carregada: no s'inicialitza en codificar");
+
+            byte[] versioFutura = bytesCart.clone();
+            versioFutura[1] = (byte) (EntityCodec.VERSION + 1);
+            assertThrows(IllegalArgumentException.class, () -> EntityCodec.decodeCart(versioFutura));
+            assertThrows(IllegalArgumentException.class, () -> EntityCodec.decodeItem(bytesCart));
+        } finally {
+            items.forEach(item -> Manager.delete(Item.class, item.getItemId()));
+            Manager.delete(Cart.class, cart.getCartId());
+        }
+    }
+
+    /**
+     * TEST: appendTo() escriu exactament el mateix text que toString(), tant
+     * amb la col·lecció d'Items carregada com sense (lazy), i writeCollection
+     * sobre un Writer coincideix amb collectionToString().
+     */
+    @Test
+    @Order(290)
+    @DisplayName("appendTo i writeCollection escriuen el mateix text que toString")
+    public void testAppendToRendering() throws Exception {
+        // Arrange
+        Cart cart = Manager.addCart("Render");
+        Item poma = Manager.addItem("Poma");
+
+        try {
+            Manager.updateCart(cart.getCartId(), "Render", new HashSet<>(List.of(poma)));
+            Cart ambItems = Manager.getCartWithItems(cart.getCartId());
+            Cart senseItems = Manager.getById(Cart.class, cart.getCartId());
+            Cart buit = new Cart();
+            buit.setCartId(7);
+
+            // Act
+            StringBuilder sb = new StringBuilder();
+            ambItems.appendTo(sb).append('|');
+            senseItems.appendTo(sb).append('|');
+            buit.appendTo(sb).append('|');
+            poma.appendTo(sb).append('|');
+            new Item().appendTo(sb);
+
+            StringWriter writer = new StringWriter();
+            Manager.writeCollection(List.of(ambItems, poma), writer);
+
+            // Assert
+            String esperat = String.format("Cart [ID=%d, Type=Render, Items: [Poma]]|", cart.getCartId())
+                + String.format("Cart [ID=%d, Type=Render, Items: [no carregats]]|", cart.getCartId())
+                + "Cart [ID=7, Type=null, Items: []]|"
+                + String.format("Item [ID=%d, Name=Poma]|", poma.getItemId())
+                + "Item [ID=0, Name=null]";
+            assertEquals(esperat, sb.toString(), "StringBuilder");
+            assertEquals(ambItems.toString() + "\n" + poma.toString() + "\n", writer.toString(), "Writer");
+            assertEquals(writer.toString(), Manager.collectionToString(List.of(ambItems, poma)));
+
+            StringWriter buida = new StringWriter();
+            Manager.writeCollection(List.of(), buida);
+            assertEquals("[]", buida.toString());
+        } finally {
+            Manager.delete(Item.class, poma.getItemId());
+            Manager.delete(Cart.class, cart.getCartId());
+        }
+    }
+}
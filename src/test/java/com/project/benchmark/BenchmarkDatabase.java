@@ -0,0 +1,60 @@
+package com.project.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import com.project.Manager;
+
+/**
+ * Base de dades SQLite d'un sol ús per als benchmarks.
+ *
+ * Cada trial de JMH (i per tant cada fork) crea un fitxer temporal nou
+ * amb l'esquema generat per Hibernate, i l'esborra en acabar. Així els
+ * resultats no depenen de dades d'execucions anteriors.
+ */
+public final class BenchmarkDatabase {
+
+    private final Path file;
+
+    private BenchmarkDatabase(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Obre la SessionFactory del Manager contra un fitxer temporal nou.
+     *
+     * @param configResource fitxer de configuració d'Hibernate (hibernate.cfg.xml o alternatiu)
+     * @param overrides propietats addicionals que sobreescriuen hibernate.properties
+     */
+    public static BenchmarkDatabase open(String configResource, Properties overrides) throws IOException {
+        Path file = Files.createTempFile("bench-", ".db");
+        Properties props = new Properties();
+        props.putAll(overrides);
+        props.setProperty("hibernate.connection.url", "jdbc:sqlite:" + file.toAbsolutePath());
+        props.setProperty("hibernate.hbm2ddl.auto", "create");
+        Manager.createSessionFactory(configResource, props);
+        return new BenchmarkDatabase(file);
+    }
+
+    public static BenchmarkDatabase open() throws IOException {
+        return open("hibernate.cfg.xml", new Properties());
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Tanca la SessionFactory i esborra el fitxer (i els fitxers auxiliars
+     * de SQLite com -journal, -wal o -shm si existeixen).
+     */
+    public void close() throws IOException {
+        Manager.close();
+        for (String suffix : new String[] {"", "-journal", "-wal", "-shm"}) {
+            Files.deleteIfExists(new File(file.toAbsolutePath() + suffix).toPath());
+        }
+    }
+}
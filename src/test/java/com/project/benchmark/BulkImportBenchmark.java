@@ -0,0 +1,63 @@
+package com.project.benchmark;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.project.Manager;
+import com.project.bulk.BulkProgress;
+import com.project.bulk.ItemRecord;
+
+/**
+ * Importació massiva amb Manager.importItems (StatelessSession) de "rows"
+ * Items repartits entre 100 Carts. L'entrada es genera sota demanda, sense
+ * materialitzar-la en una llista, de manera que amb el profiler "gc" es
+ * pot comprovar que la memòria per fila no depèn de la mida de l'entrada.
+ *
+ * Execució:
+ *   mvn test-compile exec:exec -Pbenchmark -Djmh.args="BulkImportBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BulkImportBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private BenchmarkDatabase database;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        database = BenchmarkDatabase.open();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        database.close();
+    }
+
+    @Benchmark
+    public BulkProgress importItems() {
+        Iterable<ItemRecord> records = () -> new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < rows;
+            }
+
+            @Override
+            public ItemRecord next() {
+                int i = next++;
+                return new ItemRecord("Cart " + (i % 100), "Item " + i);
+            }
+        };
+        return Manager.importItems(records, progress -> {});
+    }
+}
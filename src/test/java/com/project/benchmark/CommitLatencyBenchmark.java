@@ -0,0 +1,58 @@
+package com.project.benchmark;
+
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.project.Item;
+import com.project.Manager;
+import com.project.utils.SQLitePragmas;
+
+/**
+ * Latència d'un commit petit (un addItem = una transacció) segons el perfil
+ * de PRAGMAs de SQLite:
+ * - performance: perfil "sqlite.pragma.*" de hibernate.properties (WAL, synchronous=NORMAL...)
+ * - default: valors per defecte de SQLite (journal DELETE, synchronous=FULL, sense mmap)
+ *
+ * Mode SampleTime: JMH mostra els percentils (p50, p99...) de cada commit.
+ *
+ * Execució: mvn test-compile exec:exec -Pbenchmark -Djmh.args="CommitLatencyBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommitLatencyBenchmark {
+
+    @Param({"performance", "default"})
+    public String profile;
+
+    private BenchmarkDatabase database;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Properties overrides = new Properties();
+        if (profile.equals("default")) {
+            overrides.setProperty(SQLitePragmas.PREFIX + "journal_mode", "DELETE");
+            overrides.setProperty(SQLitePragmas.PREFIX + "synchronous", "FULL");
+            overrides.setProperty(SQLitePragmas.PREFIX + "mmap_size", "0");
+            overrides.setProperty(SQLitePragmas.PREFIX + "cache_size", "-2000");
+            overrides.setProperty(SQLitePragmas.PREFIX + "temp_store", "DEFAULT");
+        }
+        database = BenchmarkDatabase.open("hibernate.cfg.xml", overrides);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        database.close();
+    }
+
+    @Benchmark
+    public Item commitOneItem() {
+        return Manager.addItem("Benchmark");
+    }
+}
@@ -0,0 +1,67 @@
+package com.project.benchmark;
+
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.project.Cart;
+import com.project.Item;
+import com.project.Manager;
+
+/**
+ * Throughput de petites operacions CRUD (una transacció cadascuna) segons
+ * el proveïdor de connexions:
+ * - hikari: HikariCP (configuració per defecte de hibernate.properties)
+ * - builtin: pool integrat d'Hibernate basat en DriverManager
+ *
+ * Es mesura amb diversos fils perquè el pool ha de servir connexions concurrents.
+ *
+ * Execució: mvn test-compile exec:exec -Pbenchmark -Djmh.args="ConnectionPoolBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class ConnectionPoolBenchmark {
+
+    private static final String BUILTIN_PROVIDER =
+        "org.hibernate.engine.jdbc.connections.internal.DriverManagerConnectionProviderImpl";
+
+    @Param({"hikari", "builtin"})
+    public String provider;
+
+    private BenchmarkDatabase database;
+    private long cartId;
+    private long itemId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Properties overrides = new Properties();
+        if (provider.equals("builtin")) {
+            overrides.setProperty("hibernate.connection.provider_class", BUILTIN_PROVIDER);
+        }
+        database = BenchmarkDatabase.open("hibernate.cfg.xml", overrides);
+        cartId = Manager.addCart("Benchmark").getCartId();
+        itemId = Manager.addItem("Benchmark").getItemId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        database.close();
+    }
+
+    @Benchmark
+    public Cart getCart() {
+        return Manager.getById(Cart.class, cartId);
+    }
+
+    @Benchmark
+    public Item getItem() {
+        return Manager.getById(Item.class, itemId);
+    }
+}
@@ -0,0 +1,59 @@
+package com.project.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.project.Manager;
+
+/**
+ * Compara la inserció massiva d'Items amb els dos generadors d'IDs:
+ * - native: IDENTITY a SQLite (mapeig per defecte), sense batching d'INSERT
+ * - increment: IDs repartits des de memòria (hibernate-increment.cfg.xml), INSERT en lots
+ *
+ * Execució: mvn test-compile exec:exec -Pbenchmark -Djmh.args="IdGeneratorBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdGeneratorBenchmark {
+
+    @Param({"native", "increment"})
+    public String strategy;
+
+    @Param({"1000"})
+    public int rows;
+
+    private BenchmarkDatabase database;
+    private List<String> names;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        String config = strategy.equals("increment")
+            ? "hibernate-increment.cfg.xml"
+            : "hibernate.cfg.xml";
+        database = BenchmarkDatabase.open(config, new Properties());
+
+        names = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            names.add("Item " + i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        database.close();
+    }
+
+    @Benchmark
+    public List<Long> addItems() {
+        return Manager.addItems(names);
+    }
+}
@@ -0,0 +1,96 @@
+package com.project.benchmark;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.project.Cart;
+import com.project.Item;
+import com.project.Manager;
+import com.project.bulk.ItemRecord;
+
+/**
+ * Efecte dels índexs de la taula Item (idx_item_cart, idx_item_name) amb
+ * "items" files repartides en Carts de 100 Items:
+ * - with: esquema generat a partir dels mapejos (amb índexs)
+ * - without: els mateixos mapejos, però esborrant els índexs després de crear l'esquema
+ *
+ * Abans de cada crida es buida la cache de segon nivell perquè la consulta
+ * arribi sempre a SQLite.
+ *
+ * Execució: mvn test-compile exec:exec -Pbenchmark -Djmh.args="ItemIndexBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemIndexBenchmark {
+
+    private static final int ITEMS_PER_CART = 100;
+
+    @Param({"with", "without"})
+    public String index;
+
+    @Param({"1000000"})
+    public int items;
+
+    private BenchmarkDatabase database;
+    private long cartId;
+    private String itemName;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        database = BenchmarkDatabase.open();
+        Iterable<ItemRecord> records = () -> new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < items;
+            }
+
+            @Override
+            public ItemRecord next() {
+                int i = next++;
+                return new ItemRecord("Cart " + (i / ITEMS_PER_CART), "Item " + i);
+            }
+        };
+        Manager.importItems(records, progress -> {});
+        if (index.equals("without")) {
+            Manager.queryUpdate("DROP INDEX idx_item_cart");
+            Manager.queryUpdate("DROP INDEX idx_item_name");
+        }
+
+        // Un Cart i un Item del mig de la taula
+        int middle = items / 2;
+        cartId = Manager.listNamed("Cart.byType", Cart.class, 
+            Map.of("type", "Cart " + (middle / ITEMS_PER_CART))).get(0).getCartId();
+        itemName = "Item " + middle;
+    }
+
+    @Setup(Level.Invocation)
+    public void evictCaches() {
+        Manager.evictCaches();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        database.close();
+    }
+
+    @Benchmark
+    public Cart getCartWithItems() {
+        return Manager.getCartWithItems(cartId);
+    }
+
+    @Benchmark
+    public List<Item> listItemsByName() {
+        return Manager.listWhere(Item.class, "name = :name", Map.of("name", itemName));
+    }
+}
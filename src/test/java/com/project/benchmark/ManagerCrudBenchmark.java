@@ -0,0 +1,131 @@
+package com.project.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.project.Cart;
+import com.project.Item;
+import com.project.Manager;
+
+/**
+ * Línia base de rendiment de les operacions CRUD del Manager.
+ *
+ * Cada trial (i cada fork) treballa sobre un fitxer SQLite temporal nou amb
+ * un Cart de "cartSize" Items. Es mesura el throughput (ops/s) i la
+ * distribució de latències (SampleTime: p50, p99...). Amb el profiler "gc"
+ * s'obté també la taxa d'assignació de memòria (gc.alloc.rate.norm = bytes/op).
+ *
+ * Execució:
+ *   mvn test-compile exec:exec -Pbenchmark -Djmh.args="ManagerCrudBenchmark -prof gc"
+ * o bé executant el main() d'aquesta classe (que ja activa el profiler gc).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ManagerCrudBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int cartSize;
+
+    private BenchmarkDatabase database;
+    private long cartId;
+    private Set<Item> allItems;
+    private Set<Item> allButOne;
+    private boolean toggle;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        database = BenchmarkDatabase.open();
+        cartId = Manager.addCart("Benchmark").getCartId();
+
+        List<String> names = new ArrayList<>(cartSize);
+        for (int i = 0; i < cartSize; i++) {
+            names.add("Item " + i);
+        }
+        allItems = new HashSet<>();
+        for (long id : Manager.addItems(names)) {
+            Item item = new Item();
+            item.setItemId(id);
+            allItems.add(item);
+        }
+        allButOne = new HashSet<>(allItems);
+        allButOne.remove(allItems.iterator().next());
+
+        Manager.updateCart(cartId, "Benchmark", allItems);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        database.close();
+    }
+
+    @Benchmark
+    public Cart addCart() {
+        return Manager.addCart("Benchmark");
+    }
+
+    @Benchmark
+    public Item addItem() {
+        return Manager.addItem("Benchmark");
+    }
+
+    /**
+     * Alterna entre treure i tornar a posar un Item del Cart, de manera
+     * que cada crida aplica un canvi real de pertinença.
+     */
+    @Benchmark
+    public void updateCart() {
+        toggle = !toggle;
+        Manager.updateCart(cartId, "Benchmark", toggle ? allButOne : allItems);
+    }
+
+    @Benchmark
+    public Cart getCartWithItems() {
+        return Manager.getCartWithItems(cartId);
+    }
+
+    @Benchmark
+    public List<Item> listCollection() {
+        return Manager.listCollection(Item.class);
+    }
+
+    /**
+     * Cada invocació esborra un Item creat just abans (fora de la mesura).
+     */
+    @State(Scope.Thread)
+    public static class DeleteTarget {
+        long itemId;
+
+        @Setup(Level.Invocation)
+        public void create() {
+            itemId = Manager.addItem("Per esborrar").getItemId();
+        }
+    }
+
+    @Benchmark
+    public void delete(DeleteTarget target) {
+        Manager.delete(Item.class, target.itemId);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(ManagerCrudBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
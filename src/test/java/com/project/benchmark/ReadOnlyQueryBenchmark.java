@@ -0,0 +1,93 @@
+package com.project.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.project.Cart;
+import com.project.Item;
+import com.project.Manager;
+
+/**
+ * Cost de les lectures grans segons el mode de les transaccions de consulta:
+ * - readOnly: sessions només lectura (sense snapshots, FlushMode.MANUAL) i
+ *   StatelessSession per a listCollection sense cache (per defecte)
+ * - readWrite: transacció normal (snapshots + dirty-checking en fer commit)
+ *
+ * La memòria estalviada es veu amb el profiler "gc" (gc.alloc.rate.norm = bytes/op).
+ *
+ * Execució:
+ *   mvn test-compile exec:exec -Pbenchmark -Djmh.args="ReadOnlyQueryBenchmark -prof gc"
+ * o bé executant el main() d'aquesta classe (que ja activa el profiler gc).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadOnlyQueryBenchmark {
+
+    @Param({"readOnly", "readWrite"})
+    public String mode;
+
+    @Param({"10000"})
+    public int rows;
+
+    private BenchmarkDatabase database;
+    private long cartId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Properties overrides = new Properties();
+        overrides.setProperty("manager.read_only_queries", String.valueOf(mode.equals("readOnly")));
+        database = BenchmarkDatabase.open("hibernate.cfg.xml", overrides);
+        cartId = Manager.addCart("Benchmark").getCartId();
+
+        List<String> names = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            names.add("Item " + i);
+        }
+        Set<Item> items = new HashSet<>();
+        for (long id : Manager.addItems(names)) {
+            Item item = new Item();
+            item.setItemId(id);
+            items.add(item);
+        }
+        Manager.updateCart(cartId, "Benchmark", items);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        database.close();
+    }
+
+    @Benchmark
+    public List<Item> listCollection() {
+        return Manager.listCollection(Item.class);
+    }
+
+    @Benchmark
+    public Cart getCartWithItems() {
+        return Manager.getCartWithItems(cartId);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(ReadOnlyQueryBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
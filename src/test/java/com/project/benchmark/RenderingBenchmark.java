@@ -0,0 +1,74 @@
+package com.project.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.project.Cart;
+import com.project.Item;
+import com.project.Manager;
+
+/**
+ * Compara maneres de mostrar una col·lecció d'Items:
+ * - format: l'antic toString (String.format per element) i un String final amb tot
+ * - collectionToString: appendTo() sobre un StringBuilder i un String final amb tot
+ * - writeCollection: appendTo() directament sobre un Writer
+ *
+ * La destinació és un Writer que descarta els caràcters, de manera que
+ * només es mesura el cost de generar el text. Amb el profiler "gc",
+ * gc.alloc.rate.norm mostra els bytes assignats per operació.
+ *
+ * Execució: mvn test-compile exec:exec -Pbenchmark -Djmh.args="RenderingBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderingBenchmark {
+
+    @Param({"10000"})
+    public int size;
+
+    private List<Item> items;
+    private final Writer sink = Writer.nullWriter();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Cart cart = new Cart();
+        cart.setCartId(1);
+        cart.setType("Benchmark");
+        items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Item item = new Item();
+            item.setItemId(i + 1);
+            item.setName("Item " + i);
+            item.setCart(cart);
+            items.add(item);
+        }
+    }
+
+    @Benchmark
+    public void format() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (Item item : items) {
+            sb.append(String.format("Item [ID=%d, Name=%s]", item.getItemId(), item.getName())).append("\n");
+        }
+        sink.write(sb.toString());
+    }
+
+    @Benchmark
+    public void collectionToString() throws IOException {
+        sink.write(Manager.collectionToString(items));
+    }
+
+    @Benchmark
+    public void writeCollection() throws IOException {
+        Manager.writeCollection(items, sink);
+    }
+}
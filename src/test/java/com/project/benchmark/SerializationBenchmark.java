@@ -0,0 +1,119 @@
+package com.project.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.project.Cart;
+import com.project.Item;
+import com.project.codec.EntityCodec;
+
+/**
+ * Compara la serialització per defecte de Java (Serializable) amb EntityCodec,
+ * en temps de codificar/descodificar i en mida (bytes).
+ *
+ * Es treballa amb objectes en memòria (sense base de dades): un Cart amb
+ * "cartSize" Items i un d'aquests Items. Amb Serializable, l'Item arrossega
+ * tot el Cart (Item.cart → Cart.items); amb EntityCodec només escriu el cartId.
+ * Les mides s'imprimeixen en el setup de cada trial.
+ *
+ * Execució: mvn test-compile exec:exec -Pbenchmark -Djmh.args="SerializationBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"10", "1000"})
+    public int cartSize;
+
+    private Cart cart;
+    private Item item;
+    private byte[] javaCart;
+    private byte[] javaItem;
+    private byte[] codecCart;
+    private byte[] codecItem;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        cart = new Cart();
+        cart.setCartId(1);
+        cart.setType("Benchmark");
+        for (int i = 0; i < cartSize; i++) {
+            Item each = new Item();
+            each.setItemId(i + 1);
+            each.setName("Item " + i);
+            cart.addItem(each);
+        }
+        item = cart.getItems().iterator().next();
+
+        javaCart = javaEncode(cart);
+        javaItem = javaEncode(item);
+        codecCart = EntityCodec.encode(cart);
+        codecItem = EntityCodec.encode(item);
+        System.out.printf("%nMida (bytes) cartSize=%d: Cart java=%d codec=%d | Item java=%d codec=%d%n",
+            cartSize, javaCart.length, codecCart.length, javaItem.length, codecItem.length);
+    }
+
+    private static byte[] javaEncode(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object javaDecode(byte[] data) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return in.readObject();
+        }
+    }
+
+    @Benchmark
+    public byte[] encodeCartJava() throws IOException {
+        return javaEncode(cart);
+    }
+
+    @Benchmark
+    public byte[] encodeCartCodec() {
+        return EntityCodec.encode(cart);
+    }
+
+    @Benchmark
+    public Object decodeCartJava() throws IOException, ClassNotFoundException {
+        return javaDecode(javaCart);
+    }
+
+    @Benchmark
+    public Cart decodeCartCodec() {
+        return EntityCodec.decodeCart(codecCart);
+    }
+
+    @Benchmark
+    public byte[] encodeItemJava() throws IOException {
+        return javaEncode(item);
+    }
+
+    @Benchmark
+    public byte[] encodeItemCodec() {
+        return EntityCodec.encode(item);
+    }
+
+    @Benchmark
+    public Object decodeItemJava() throws IOException, ClassNotFoundException {
+        return javaDecode(javaItem);
+    }
+
+    @Benchmark
+    public Item decodeItemCodec() {
+        return EntityCodec.decodeItem(codecItem);
+    }
+}
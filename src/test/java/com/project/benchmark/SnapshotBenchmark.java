@@ -0,0 +1,96 @@
+package com.project.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.project.Manager;
+import com.project.bulk.ItemRecord;
+import com.project.utils.ParallelSnapshot;
+import com.project.utils.TableDumper;
+
+/**
+ * Temps de còpia (export) i restauració (import) amb ParallelSnapshot
+ * d'una base de dades de "items" Items, segons el nombre de fils.
+ *
+ * Execució: mvn test-compile exec:exec -Pbenchmark -Djmh.args="SnapshotBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SnapshotBenchmark {
+
+    @Param({"1", "4"})
+    public int threads;
+
+    @Param({"1000000"})
+    public int items;
+
+    private BenchmarkDatabase database;
+    private Path snapshotDir;
+    private Path restoreFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        database = BenchmarkDatabase.open();
+        Iterable<ItemRecord> records = () -> new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < items;
+            }
+
+            @Override
+            public ItemRecord next() {
+                int i = next++;
+                return new ItemRecord("Cart " + (i / 100), "Item " + i);
+            }
+        };
+        Manager.importItems(records, progress -> {});
+        snapshotDir = Files.createTempDirectory("snapshot-");
+        ParallelSnapshot.export(database.getFile().toString(), snapshotDir, threads, 
+            ParallelSnapshot.DEFAULT_PARTITION_ROWS);
+    }
+
+    @Setup(Level.Invocation)
+    public void newRestoreTarget() throws IOException {
+        restoreFile = Files.createTempFile("restore-", ".db");
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteRestoreTarget() throws IOException {
+        for (String suffix : new String[] {"", "-journal", "-wal", "-shm"}) {
+            Files.deleteIfExists(Path.of(restoreFile + suffix));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (var files = Files.list(snapshotDir)) {
+            for (Path file : files.toList()) Files.delete(file);
+        }
+        Files.delete(snapshotDir);
+        database.close();
+    }
+
+    @Benchmark
+    public List<TableDumper.Stats> export() throws IOException, SQLException {
+        return ParallelSnapshot.export(database.getFile().toString(), snapshotDir, threads, 
+            ParallelSnapshot.DEFAULT_PARTITION_ROWS);
+    }
+
+    @Benchmark
+    public List<TableDumper.Stats> restore() throws IOException, SQLException {
+        return ParallelSnapshot.importInto(restoreFile.toString(), snapshotDir, threads);
+    }
+}